@@ -0,0 +1,136 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A FixedWidthCodec converts elements to and from a fixed number of bytes, so that an {@link OffHeapHashSet} can
+ * keep them outside the Java heap.
+ *
+ * <p>Two elements are treated as the same element exactly when they encode to the same bytes, so a codec must
+ * encode equal elements identically and unequal elements differently. Codecs read and write with absolute
+ * {@link ByteBuffer} operations and must not change the buffer's position or limit.
+ *
+ * @param <E> the type of elements encoded
+ * @see OffHeapHashSet
+ */
+public interface FixedWidthCodec<E> {
+
+    /**
+     * {@code long} values, encoded in 8 bytes.
+     */
+    FixedWidthCodec<Long> LONGS = new FixedWidthCodec<>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer target, int offset) {
+            target.putLong(offset, value);
+        }
+
+        @Override
+        public Long decode(ByteBuffer source, int offset) {
+            return source.getLong(offset);
+        }
+    };
+
+    /**
+     * {@link UUID}s, encoded in 16 bytes as their most and then least significant halves.
+     */
+    FixedWidthCodec<UUID> UUIDS = new FixedWidthCodec<>() {
+        @Override
+        public int width() {
+            return 2 * Long.BYTES;
+        }
+
+        @Override
+        public void encode(UUID value, ByteBuffer target, int offset) {
+            target.putLong(offset, value.getMostSignificantBits());
+            target.putLong(offset + Long.BYTES, value.getLeastSignificantBits());
+        }
+
+        @Override
+        public UUID decode(ByteBuffer source, int offset) {
+            return new UUID(source.getLong(offset), source.getLong(offset + Long.BYTES));
+        }
+    };
+
+    /**
+     * Returns a codec for byte arrays of exactly the given length, compared by content.
+     *
+     * @param length the length every array must have
+     * @return a codec for byte arrays of that length
+     * @throws IllegalArgumentException if the length is not positive
+     */
+    static FixedWidthCodec<byte[]> bytes(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("length must be greater than 0");
+        }
+
+        return new FixedWidthCodec<>() {
+            @Override
+            public int width() {
+                return length;
+            }
+
+            @Override
+            public void encode(byte[] value, ByteBuffer target, int offset) {
+                if (Objects.requireNonNull(value).length != length) {
+                    throw new IllegalArgumentException("expected an array of length " + length + " but got " + value.length);
+                }
+                target.put(offset, value);
+            }
+
+            @Override
+            public byte[] decode(ByteBuffer source, int offset) {
+                byte[] value = new byte[length];
+                source.get(offset, value);
+                return value;
+            }
+
+            @Override
+            public int hash(byte[] value) {
+                return Arrays.hashCode(value);
+            }
+        };
+    }
+
+    /**
+     * @return the number of bytes every element encodes to
+     */
+    int width();
+
+    /**
+     * Writes the given element into the buffer at the given offset.
+     *
+     * @param value  the element to encode, never {@code null}
+     * @param target the buffer to write to
+     * @param offset the absolute offset to write at
+     * @throws ClassCastException       if the element is not of the codec's type
+     * @throws IllegalArgumentException if the element cannot be encoded in {@link #width()} bytes
+     */
+    void encode(E value, ByteBuffer target, int offset);
+
+    /**
+     * Reads an element back from the buffer at the given offset.
+     *
+     * @param source the buffer to read from
+     * @param offset the absolute offset to read at
+     * @return the decoded element
+     */
+    E decode(ByteBuffer source, int offset);
+
+    /**
+     * Returns the hash code an {@link OffHeapHashSet} counts for the given element. It must agree with the
+     * encoding, giving equal hashes to elements that encode alike; the default, the element's own
+     * {@code hashCode}, does so for any type whose {@code equals} matches its encoding.
+     *
+     * @param value the element to hash, never {@code null}
+     * @return the element's hash code
+     */
+    default int hash(E value) {
+        return value.hashCode();
+    }
+}
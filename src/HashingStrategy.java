@@ -0,0 +1,197 @@
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A HashingStrategy supplies the hash and equality functions a {@link MyHashSet} uses in place of the
+ * elements' own {@code hashCode} and {@code equals}.
+ *
+ * <p>This lets a set treat raw keys as equal under some other notion of equality (case-insensitive strings,
+ * the contents of arrays, reference identity, a projected field) without wrapping every key in an adapter
+ * object on each {@code add} or {@code contains}.
+ *
+ * <p>Implementations must be consistent: if {@code equals(a, b)} is {@code true} then
+ * {@code computeHashCode(a) == computeHashCode(b)}. Both methods must accept {@code null}, as MyHashSet
+ * permits a null element.
+ *
+ * @param <E> the type of elements this strategy can hash and compare
+ * @see MyHashSet
+ */
+public interface HashingStrategy<E> {
+
+    /**
+     * Computes the hash code of the given element under this strategy.
+     *
+     * @param e the element to hash, possibly {@code null}
+     * @return the hash code of the element
+     */
+    int computeHashCode(E e);
+
+    /**
+     * Returns {@code true} if the two elements are equal under this strategy.
+     *
+     * @param a the first element, possibly {@code null}
+     * @param b the second element, possibly {@code null}
+     * @return {@code true} if the elements are to be treated as the same element
+     */
+    boolean equals(E a, E b);
+
+    /**
+     * Returns the strategy used when none is specified, which defers to the elements' own
+     * {@code hashCode} and {@code equals} through {@link Objects#hashCode} and {@link Objects#equals}.
+     *
+     * @param <E> the type of elements
+     * @return the default strategy
+     */
+    @SuppressWarnings("unchecked")
+    static <E> HashingStrategy<E> defaultStrategy() {
+        return (HashingStrategy<E>) Strategies.DEFAULT;
+    }
+
+    /**
+     * Returns a strategy that compares elements by reference, using {@link System#identityHashCode}
+     * and {@code ==}.
+     *
+     * @param <E> the type of elements
+     * @return the identity strategy
+     */
+    @SuppressWarnings("unchecked")
+    static <E> HashingStrategy<E> identity() {
+        return (HashingStrategy<E>) Strategies.IDENTITY;
+    }
+
+    /**
+     * Returns a strategy that compares arrays by their contents, as {@link Arrays#deepEquals} does.
+     * Elements which are not arrays fall back to their own {@code hashCode} and {@code equals}.
+     *
+     * @param <E> the type of elements, normally an array type such as {@code byte[]}
+     * @return the array-content strategy
+     */
+    @SuppressWarnings("unchecked")
+    static <E> HashingStrategy<E> arrayContents() {
+        return (HashingStrategy<E>) Strategies.ARRAY_CONTENTS;
+    }
+
+    /**
+     * Returns a strategy that compares character sequences ignoring case, in the manner of
+     * {@link String#equalsIgnoreCase}.
+     *
+     * @param <E> the type of elements
+     * @return the case-insensitive strategy
+     */
+    @SuppressWarnings("unchecked")
+    static <E extends CharSequence> HashingStrategy<E> caseInsensitive() {
+        return (HashingStrategy<E>) Strategies.CASE_INSENSITIVE;
+    }
+
+    /**
+     * Returns a strategy that hashes and compares elements by a key extracted from them, so that
+     * two elements are equal exactly when their keys are equal.
+     *
+     * @param keyExtractor function producing the key of an element; it is never passed {@code null}
+     * @param <E>          the type of elements
+     * @return a strategy comparing elements by the extracted key
+     * @throws NullPointerException if {@code keyExtractor} is null
+     */
+    static <E> HashingStrategy<E> projecting(Function<? super E, ?> keyExtractor) {
+        Objects.requireNonNull(keyExtractor);
+
+        return new HashingStrategy<>() {
+            @Override
+            public int computeHashCode(E e) {
+                return e == null ? 0 : Objects.hashCode(keyExtractor.apply(e));
+            }
+
+            @Override
+            public boolean equals(E a, E b) {
+                if (a == null || b == null)
+                    return a == b;
+                return Objects.equals(keyExtractor.apply(a), keyExtractor.apply(b));
+            }
+        };
+    }
+}
+
+/**
+ * Holder for the stateless built-in strategies, so each is a single shared instance.
+ */
+final class Strategies {
+    static final HashingStrategy<Object> DEFAULT = new HashingStrategy<>() {
+        @Override
+        public int computeHashCode(Object e) {
+            return Objects.hashCode(e);
+        }
+
+        @Override
+        public boolean equals(Object a, Object b) {
+            return Objects.equals(a, b);
+        }
+    };
+
+    static final HashingStrategy<Object> IDENTITY = new HashingStrategy<>() {
+        @Override
+        public int computeHashCode(Object e) {
+            return System.identityHashCode(e);
+        }
+
+        @Override
+        public boolean equals(Object a, Object b) {
+            return a == b;
+        }
+    };
+
+    static final HashingStrategy<Object> ARRAY_CONTENTS = new HashingStrategy<>() {
+        @Override
+        public int computeHashCode(Object e) {
+            //Dispatch by hand rather than through Arrays.deepHashCode(new Object[]{e}), which would allocate on every call
+            if (e instanceof Object[]) return Arrays.deepHashCode((Object[]) e);
+            if (e instanceof byte[]) return Arrays.hashCode((byte[]) e);
+            if (e instanceof int[]) return Arrays.hashCode((int[]) e);
+            if (e instanceof long[]) return Arrays.hashCode((long[]) e);
+            if (e instanceof char[]) return Arrays.hashCode((char[]) e);
+            if (e instanceof short[]) return Arrays.hashCode((short[]) e);
+            if (e instanceof double[]) return Arrays.hashCode((double[]) e);
+            if (e instanceof float[]) return Arrays.hashCode((float[]) e);
+            if (e instanceof boolean[]) return Arrays.hashCode((boolean[]) e);
+            return Objects.hashCode(e);
+        }
+
+        @Override
+        public boolean equals(Object a, Object b) {
+            return Objects.deepEquals(a, b);
+        }
+    };
+
+    static final HashingStrategy<CharSequence> CASE_INSENSITIVE = new HashingStrategy<>() {
+        @Override
+        public int computeHashCode(CharSequence e) {
+            if (e == null)
+                return 0;
+
+            //Fold each char the same way String.equalsIgnoreCase compares them, so equal sequences hash alike
+            int h = 0;
+            for (int i = 0; i < e.length(); i++) {
+                h = 31 * h + Character.toLowerCase(Character.toUpperCase(e.charAt(i)));
+            }
+            return h;
+        }
+
+        @Override
+        public boolean equals(CharSequence a, CharSequence b) {
+            if (a == null || b == null)
+                return a == b;
+            if (a.length() != b.length())
+                return false;
+
+            for (int i = 0; i < a.length(); i++) {
+                char x = a.charAt(i), y = b.charAt(i);
+                if (x != y && Character.toLowerCase(Character.toUpperCase(x)) != Character.toLowerCase(Character.toUpperCase(y)))
+                    return false;
+            }
+            return true;
+        }
+    };
+
+    private Strategies() {
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * A KeyParser turns one line of text into the element it describes, for bulk loading a {@link MyHashSet}
+ * from a file with {@link MyHashSet#load}.
+ *
+ * <p>Parsers are called concurrently from several threads during a load, and so must not rely on shared
+ * mutable state.
+ *
+ * @param <E> the type of element produced
+ * @see MyHashSet#load
+ */
+@FunctionalInterface
+public interface KeyParser<E> {
+
+    /**
+     * Parses a single line into an element.
+     *
+     * @param line a line of input, without its line terminator
+     * @return the element the line describes, possibly {@code null}
+     */
+    E parse(String line);
+}
@@ -0,0 +1,114 @@
+/**
+ * LatencyHistogram counts non-negative values, such as latencies in nanoseconds, in log-linear buckets: each
+ * power of two is split into {@value #SUB_BUCKETS} equal buckets. Recording is a few arithmetic operations and an
+ * array increment, memory is fixed, and any percentile is reported to within about 3% of the true value, in the
+ * manner of HdrHistogram.
+ *
+ * @see TraceReplay
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    private long count = 0, sum = 0, max = 0;
+
+    /**
+     * Records one value. Negative values are recorded as zero.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts[indexOf(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the largest value recorded, exactly, or 0 if none has been
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @return the mean of the values recorded, exactly, or 0 if none has been
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns a value that the given percentage of recorded values are at or below. The value is the upper end of
+     * the bucket the percentile falls in, and never more than the largest value recorded.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the value at that percentile, or 0 if nothing has been recorded
+     * @throws IllegalArgumentException if the percentile is outside 0 to 100
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+
+        if (count == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target)
+                return Math.min(highestValueIn(i), max);
+        }
+        return max;
+    }
+
+    /**
+     * Adds every value recorded by another histogram to this one.
+     *
+     * @param other the histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    //Values below SUB_BUCKETS get a bucket each; above that, the top SUB_BUCKET_BITS + 1 bits choose the bucket
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "p50=" + valueAtPercentile(50) + " p90=" + valueAtPercentile(90) + " p99=" + valueAtPercentile(99)
+                + " p99.9=" + valueAtPercentile(99.9) + " max=" + max;
+    }
+}
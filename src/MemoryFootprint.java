@@ -0,0 +1,146 @@
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * A MemoryFootprint is an estimate of the heap a {@link MyHashSet} retains, broken down by where the bytes go.
+ *
+ * <p>Structural figures are computed from the set's own arrays and lists, using the object layout of a 64-bit
+ * HotSpot JVM, without walking the elements themselves. Element bytes are only filled in when a footprint is
+ * taken with an element sizer, see {@link MyHashSet#memoryFootprint(java.util.function.ToLongFunction)}.
+ *
+ * <p>The slack figure is not additional memory: it is the part of the table and bucket bytes made up of
+ * reference slots that hold nothing, and so shows how much a lower load factor or a trim would cost or save.
+ *
+ * @see MyHashSet#memoryFootprint()
+ * @see MyHashSet#estimatedRetainedBytes()
+ */
+public final class MemoryFootprint {
+    //Layout of the running JVM, worked out once. Compressed oops also imply compressed class pointers by default.
+    static final boolean COMPRESSED_OOPS = compressedOops();
+    static final int REFERENCE_BYTES = COMPRESSED_OOPS ? 4 : 8;
+    static final int OBJECT_HEADER_BYTES = COMPRESSED_OOPS ? 12 : 16;
+    static final int ARRAY_HEADER_BYTES = COMPRESSED_OOPS ? 16 : 24;
+    static final int ALIGNMENT = 8;
+
+    private final long setBytes, tableBytes, bucketBytes, slackBytes, elementBytes;
+    private final int size;
+
+    MemoryFootprint(long setBytes, long tableBytes, long bucketBytes, long slackBytes, long elementBytes, int size) {
+        this.setBytes = setBytes;
+        this.tableBytes = tableBytes;
+        this.bucketBytes = bucketBytes;
+        this.slackBytes = slackBytes;
+        this.elementBytes = elementBytes;
+        this.size = size;
+    }
+
+    /**
+     * @return the bytes of the set object itself
+     */
+    public long setBytes() {
+        return setBytes;
+    }
+
+    /**
+     * @return the bytes of the outer table, or of the small-set array while the set is small
+     */
+    public long tableBytes() {
+        return tableBytes;
+    }
+
+    /**
+     * @return the bytes of the interior lists, both the list objects and their element arrays
+     */
+    public long bucketBytes() {
+        return bucketBytes;
+    }
+
+    /**
+     * @return the part of the table and bucket bytes taken by empty reference slots
+     */
+    public long slackBytes() {
+        return slackBytes;
+    }
+
+    /**
+     * @return the bytes reported for the elements by an element sizer, or 0 for a structural footprint
+     */
+    public long elementBytes() {
+        return elementBytes;
+    }
+
+    /**
+     * @return the bytes the set's own structure retains, excluding the elements
+     */
+    public long structuralBytes() {
+        return setBytes + tableBytes + bucketBytes;
+    }
+
+    /**
+     * @return the structural bytes and element bytes together
+     */
+    public long totalBytes() {
+        return structuralBytes() + elementBytes;
+    }
+
+    /**
+     * @return the structural bytes spent per element, or 0 for an empty set
+     */
+    public double perElementOverhead() {
+        return size == 0 ? 0 : (double) structuralBytes() / size;
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryFootprint[set=" + setBytes + ", table=" + tableBytes + ", buckets=" + bucketBytes
+                + ", slack=" + slackBytes + ", elements=" + elementBytes + ", total=" + totalBytes()
+                + ", perElementOverhead=" + String.format("%.1f", perElementOverhead()) + "]";
+    }
+
+    /**
+     * Returns the size of an array of references of the given length.
+     */
+    static long referenceArrayBytes(int length) {
+        return align(ARRAY_HEADER_BYTES + (long) length * REFERENCE_BYTES);
+    }
+
+    /**
+     * Returns the shallow size of an instance of the given class, from the types of its instance fields and
+     * those of its superclasses. Field packing is approximated by summing and aligning once.
+     */
+    static long instanceBytes(Class<?> type) {
+        long bytes = OBJECT_HEADER_BYTES;
+
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(f.getModifiers()))
+                    bytes += fieldBytes(f.getType());
+            }
+        }
+        return align(bytes);
+    }
+
+    static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static int fieldBytes(Class<?> type) {
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        if (type == byte.class || type == boolean.class) return 1;
+        return REFERENCE_BYTES;
+    }
+
+    private static boolean compressedOops() {
+        try {
+            com.sun.management.HotSpotDiagnosticMXBean bean =
+                    ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+        } catch (RuntimeException | LinkageError ex) {
+            //Not HotSpot, or the option is unavailable; compressed oops are the default below 32GB of heap
+            return true;
+        }
+    }
+}
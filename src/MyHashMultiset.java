@@ -0,0 +1,415 @@
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * MyHashMultiset counts how many times each element has been added. It hashes and compares elements exactly as a
+ * {@link MyHashSet} does, through a {@link HashingStrategy} and the same bucket function, but keeps a primitive
+ * {@code int} count beside each element in its bucket. Counting an element is therefore a single hash and a
+ * single bucket scan, like a set insert, and no counter is ever boxed.
+ *
+ * <p>Each bucket is a pair of parallel arrays, one of elements and one of counts, allocated on the bucket's first
+ * element and dropped again when it empties. The table is not allocated until the first element is added, and
+ * doubles whenever the number of distinct elements passes the load factor.
+ *
+ * <p>Iteration visits each distinct element once; {@link #forEachEntry(ObjIntConsumer)} visits each element
+ * with its count. {@code null} is permitted.
+ *
+ * @param <E> the type of elements counted
+ * @see MyHashSet
+ * @see HashingStrategy
+ */
+public class MyHashMultiset<E> implements Iterable<E> {
+    private static final int DEFAULT_INT_CAP = 16;
+    //Length each bucket's arrays are given when the bucket is first used
+    private static final int BUCKET_FIRST_CAPACITY = 2;
+    private final double LOAD_FACTOR;
+    private final int INITIAL_CAPACITY;
+    private final HashingStrategy<? super E> strategy;
+    //Bucket i holds bucketSizes[i] elements in keys[i], with their counts at the same positions in counts[i]
+    private Object[][] keys;
+    private int[][] counts;
+    private int[] bucketSizes;
+    private int distinct = 0, mod_count = 0;
+    private long total = 0;
+
+    //Default Constructor
+    public MyHashMultiset() {
+        this(DEFAULT_INT_CAP, .75);
+    }
+
+    //Capacity Constructor
+    public MyHashMultiset(int initialCapacity) {
+        this(initialCapacity, .75);
+    }
+
+    //Specified Constructor
+    public MyHashMultiset(int initialCapacity, double loadFactor) {
+        this(initialCapacity, loadFactor, HashingStrategy.defaultStrategy());
+    }
+
+    //Strategy Constructor
+    public MyHashMultiset(HashingStrategy<? super E> strategy) {
+        this(DEFAULT_INT_CAP, .75, strategy);
+    }
+
+    /**
+     * Constructs an empty multiset which hashes and compares its elements with the given strategy.
+     *
+     * @param initialCapacity the number of buckets allocated on the first add
+     * @param loadFactor      the ratio of distinct elements to buckets past which the table is doubled
+     * @param strategy        the hash and equality functions to apply to elements
+     * @throws IllegalArgumentException if the load factor is not positive or the capacity is negative
+     * @throws NullPointerException     if the strategy is null
+     */
+    public MyHashMultiset(int initialCapacity, double loadFactor, HashingStrategy<? super E> strategy) {
+        if (loadFactor <= 0) {
+            throw new IllegalArgumentException("load factor must be greater than 0");
+        }
+
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative");
+        }
+
+        INITIAL_CAPACITY = initialCapacity > 0 ? initialCapacity : DEFAULT_INT_CAP;
+        LOAD_FACTOR = loadFactor;
+        this.strategy = Objects.requireNonNull(strategy, "hashing strategy cannot be null");
+    }
+
+    /**
+     * @return the number of distinct elements in this multiset
+     */
+    public int distinctSize() {
+        return distinct;
+    }
+
+    /**
+     * @return the sum of the counts of every element in this multiset
+     */
+    public long totalCount() {
+        return total;
+    }
+
+    /**
+     * @return {@code true} if this multiset holds no elements
+     */
+    public boolean isEmpty() {
+        return distinct == 0;
+    }
+
+    /**
+     * Returns the number of times an element has been added, less the occurrences since removed.
+     *
+     * @param o the element to count
+     * @return its count, or 0 if it is not present
+     */
+    public int count(Object o) {
+        if (keys == null)
+            return 0;
+
+        int bucket = MyHashSet.indexForHash(hashOf(o), keys.length);
+        int position = positionInBucket(bucket, o);
+
+        return position < 0 ? 0 : counts[bucket][position];
+    }
+
+    /**
+     * @param o the element to look for
+     * @return {@code true} if the element's count is greater than zero
+     */
+    public boolean contains(Object o) {
+        return count(o) > 0;
+    }
+
+    /**
+     * Adds one occurrence of an element.
+     *
+     * @param e the element to add
+     * @return the element's count before the call
+     * @throws ArithmeticException if the count would pass {@code Integer.MAX_VALUE}
+     */
+    public int add(E e) {
+        return add(e, 1);
+    }
+
+    /**
+     * Adds a number of occurrences of an element. Adding zero occurrences leaves the multiset unchanged.
+     *
+     * @param e           the element to add
+     * @param occurrences the number of occurrences to add
+     * @return the element's count before the call
+     * @throws IllegalArgumentException if the number of occurrences is negative
+     * @throws ArithmeticException      if the count would pass {@code Integer.MAX_VALUE}
+     */
+    public int add(E e, int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("occurrences cannot be negative");
+        }
+
+        if (occurrences == 0)
+            return count(e);
+
+        if (keys == null)
+            allocate(INITIAL_CAPACITY);
+
+        int hash = hashOf(e);
+        int bucket = MyHashSet.indexForHash(hash, keys.length);
+        int position = positionInBucket(bucket, e);
+
+        //An element already present is counted in place, with no further hashing
+        if (position >= 0) {
+            int previous = counts[bucket][position];
+            counts[bucket][position] = Math.addExact(previous, occurrences);
+            total += occurrences;
+            mod_count++;
+            return previous;
+        }
+
+        //check is this multiset has become unbalanced and balances it if it has
+        if (distinct + 1 > keys.length * LOAD_FACTOR) {
+            refactor();
+            bucket = MyHashSet.indexForHash(hash, keys.length);
+        }
+
+        append(bucket, e, occurrences);
+        distinct++;
+        total += occurrences;
+        mod_count++;
+        return 0;
+    }
+
+    /**
+     * Removes up to the given number of occurrences of an element. The element leaves the multiset when its count
+     * reaches zero.
+     *
+     * @param o           the element to remove occurrences of
+     * @param occurrences the most occurrences to remove
+     * @return the element's count before the call
+     * @throws IllegalArgumentException if the number of occurrences is negative
+     */
+    public int removeOccurrences(Object o, int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("occurrences cannot be negative");
+        }
+
+        if (keys == null || occurrences == 0)
+            return count(o);
+
+        int bucket = MyHashSet.indexForHash(hashOf(o), keys.length);
+        int position = positionInBucket(bucket, o);
+
+        if (position < 0)
+            return 0;
+
+        int previous = counts[bucket][position];
+
+        if (occurrences >= previous) {
+            removeAt(bucket, position);
+            distinct--;
+            total -= previous;
+        } else {
+            counts[bucket][position] = previous - occurrences;
+            total -= occurrences;
+        }
+
+        mod_count++;
+        return previous;
+    }
+
+    /**
+     * Removes every occurrence of an element.
+     *
+     * @param o the element to remove
+     * @return the element's count before the call
+     */
+    public int removeAll(Object o) {
+        return removeOccurrences(o, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes every element.
+     */
+    public void clear() {
+        //Back to an unallocated table
+        keys = null;
+        counts = null;
+        bucketSizes = null;
+        distinct = 0;
+        total = 0;
+        mod_count++;
+    }
+
+    /**
+     * Returns the elements with the highest counts, highest first, paired with their counts. Only a heap of
+     * {@code k} entries is kept while the table is scanned, so this runs in time proportional to the number of
+     * distinct elements times {@code log k}. Elements with equal counts are ordered arbitrarily.
+     *
+     * @param k the most elements to return
+     * @return up to {@code k} entries of element and count, in descending order of count
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public List<Map.Entry<E, Integer>> topK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+
+        //The table outlives its last element, so emptiness is told by the count rather than by the table
+        if (k == 0 || distinct == 0)
+            return new ArrayList<>();
+
+        //A min-heap of the best k so far; its head is the entry any newcomer must beat
+        PriorityQueue<Map.Entry<E, Integer>> best = new PriorityQueue<>(Math.min(k, distinct), Map.Entry.comparingByValue());
+
+        for (int bucket = 0; bucket < keys.length; bucket++) {
+            for (int i = 0; i < bucketSizes[bucket]; i++) {
+                int count = counts[bucket][i];
+
+                //Entries are only made for counts that would enter the heap, so the scan itself allocates nothing
+                if (best.size() < k) {
+                    best.add(new AbstractMap.SimpleImmutableEntry<>((E) keys[bucket][i], count));
+                } else if (count > best.peek().getValue()) {
+                    best.poll();
+                    best.add(new AbstractMap.SimpleImmutableEntry<>((E) keys[bucket][i], count));
+                }
+            }
+        }
+
+        List<Map.Entry<E, Integer>> outList = new ArrayList<>(best);
+        outList.sort(Map.Entry.<E, Integer>comparingByValue().reversed());
+        return outList;
+    }
+
+    /**
+     * Passes every distinct element to the given action along with its count, without boxing the count.
+     *
+     * @param action the action to perform on each element and count
+     */
+    public void forEachEntry(ObjIntConsumer<? super E> action) {
+        if (keys == null)
+            return;
+
+        int originalModCount = mod_count;
+
+        for (int bucket = 0; bucket < keys.length; bucket++) {
+            for (int i = 0; i < bucketSizes[bucket]; i++) {
+                action.accept((E) keys[bucket][i], counts[bucket][i]);
+
+                if (originalModCount != mod_count)
+                    throw new ConcurrentModificationException("The Iterator has detected a modification to the Multiset. This is not allowed.");
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator over the distinct elements of this multiset, each visited once whatever its count.
+     *
+     * @return an iterator over the distinct elements
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            final int originalModCount = mod_count;
+            int bucket = 0, position = 0, returned = 0;
+
+            public boolean hasNext() {
+                return returned < distinct;
+            }
+
+            public E next() {
+                if (originalModCount != mod_count)
+                    throw new ConcurrentModificationException("The Iterator has detected a modification to the Multiset. This is not allowed.");
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                while (position >= bucketSizes[bucket]) {
+                    bucket++;
+                    position = 0;
+                }
+
+                returned++;
+                return (E) keys[bucket][position++];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("[");
+        forEachEntry((el, count) -> {
+            if (out.length() > 1)
+                out.append(", ");
+            out.append(el).append(" x ").append(count);
+        });
+        return out.append(']').toString();
+    }
+
+    private int hashOf(Object o) {
+        return (o == null) ? 0 : strategy.computeHashCode((E) o);
+    }
+
+    private int positionInBucket(int bucket, Object o) {
+        Object[] els = keys[bucket];
+
+        for (int i = 0; i < bucketSizes[bucket]; i++) {
+            if (strategy.equals((E) els[i], (E) o))
+                return i;
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity][];
+        counts = new int[capacity][];
+        bucketSizes = new int[capacity];
+    }
+
+    private void append(int bucket, Object el, int count) {
+        int n = bucketSizes[bucket];
+
+        if (keys[bucket] == null) {
+            keys[bucket] = new Object[BUCKET_FIRST_CAPACITY];
+            counts[bucket] = new int[BUCKET_FIRST_CAPACITY];
+        } else if (n == keys[bucket].length) {
+            keys[bucket] = Arrays.copyOf(keys[bucket], n * 2);
+            counts[bucket] = Arrays.copyOf(counts[bucket], n * 2);
+        }
+
+        keys[bucket][n] = el;
+        counts[bucket][n] = count;
+        bucketSizes[bucket] = n + 1;
+    }
+
+    //Fills the hole with the bucket's last entry, and drops the bucket's arrays once it is empty
+    private void removeAt(int bucket, int position) {
+        int last = --bucketSizes[bucket];
+
+        if (last == 0) {
+            keys[bucket] = null;
+            counts[bucket] = null;
+            return;
+        }
+
+        keys[bucket][position] = keys[bucket][last];
+        counts[bucket][position] = counts[bucket][last];
+        keys[bucket][last] = null;
+    }
+
+    /**
+     * Doubles the table and moves every entry, count and all, into its new bucket. Hashes are recomputed, as
+     * {@link MyHashSet} does on a resize.
+     */
+    private void refactor() {
+        Object[][] oldKeys = keys;
+        int[][] oldCounts = counts;
+        int[] oldSizes = bucketSizes;
+
+        allocate(oldKeys.length * 2);
+
+        for (int bucket = 0; bucket < oldKeys.length; bucket++) {
+            for (int i = 0; i < oldSizes[bucket]; i++) {
+                append(MyHashSet.indexForHash(hashOf(oldKeys[bucket][i]), keys.length), oldKeys[bucket][i], oldCounts[bucket][i]);
+            }
+        }
+    }
+}
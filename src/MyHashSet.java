@@ -1,5 +1,12 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * MyHashSet is a custom implementation of the Set interface.
@@ -7,17 +14,65 @@ import java.util.*;
  * <p>The implementation supports dynamic resizing of the underlying array when the load factor is exceeded,
  * ensuring optimal performance for a varying number of elements.
  *
+ * <p>No table is allocated until the first element is added. Up to {@value #SMALL_SET_LIMIT} elements are then kept
+ * in a compact array and found by linear scan; adding one more promotes the set to a hashed table of interior
+ * lists. This keeps the many tiny sets a program may hold down to a single small array each.
+ *
+ * <p>Elements are hashed and compared with their own {@code hashCode} and {@code equals} unless a
+ * {@link HashingStrategy} is supplied at construction, in which case that strategy is used throughout.
+ *
+ * <p>After {@link #trackChanges()} the set logs every element it adds or removes against its version, so that
+ * {@link #deltaSince(int)} can hand a follower just the net change since the version it last saw, for the
+ * follower to {@link #applyDelta(SetDelta) apply}. The log grows with churn until trimmed with
+ * {@link #discardChangesThrough(int)}.
+ *
+ * <p>After {@link #adaptLoadFactor(double, double)} the set compares the length of each bucket it inserts into
+ * with the length uniform hashing would give, and moves its load factor within the given bounds to suit: down,
+ * resizing sooner, when its keys collide more than they should, and up, running denser, when they spread well.
+ *
  * @param <E> the type of elements maintained by this set
  * @see Set
  * @see HashSet
+ * @see HashingStrategy
+ * @see SetDelta
  * @see List
  */
 public class MyHashSet<E> implements Set<E> {
+    //Stays null while the set is small; the set is in hashed mode exactly when this is non-null
     private List<E>[] backingStore;
+    //Holds the elements, packed at the front, while the set is small. Allocated on the first add.
+    private Object[] smallStore;
     private static final int DEFAULT_INT_CAP = 16;
+    //Most elements a set holds in smallStore before it promotes itself to a hashed table
+    private static final int SMALL_SET_LIMIT = 4;
+    //Capacity ArrayList gives its element array on the first add to an interior list
+    private static final int LIST_FIRST_CAPACITY = 10;
+    //Number of partitions a bulk build splits its input into; a power of two
+    private static final int BULK_PARTITIONS = 64;
+    //Inserts sampled between load factor adjustments, the ratios of observed to expected bucket length that trigger
+    //one, and the step taken each time
+    private static final int ADAPT_WINDOW = 256;
+    private static final double HIGH_COLLISION_RATIO = 1.5, LOW_COLLISION_RATIO = 1.1, ADAPT_STEP = 1.25;
+    //Shallow sizes used by memoryFootprint()
+    private static final long SET_BYTES = MemoryFootprint.instanceBytes(MyHashSet.class);
+    private static final long ARRAY_LIST_BYTES = MemoryFootprint.instanceBytes(ArrayList.class);
     private final double LOAD_FACTOR;
+    //The load factor resizes are decided by; LOAD_FACTOR unless adaptLoadFactor() has moved it
+    private double loadFactor;
+    private double minLoadFactor, maxLoadFactor;
+    private boolean adaptive = false;
+    //Bucket lengths seen by, and expected under uniform hashing for, the inserts since the last adjustment
+    private long observedBucketLengths = 0;
+    private double expectedBucketLengths = 0;
+    private int samples = 0;
+    private final int INITIAL_CAPACITY;
+    private final HashingStrategy<? super E> strategy;
     private int size = 0, mod_count = 0;
+    //Sum of the hashes of every element, kept current by addNotDuple() and remove() so that hashCode() is O(1)
+    private int hashSum = 0;
     private boolean overFlowFlag = false;
+    //Null unless trackChanges() has been called
+    private ChangeLog changes;
 
     //Default Constructor
     public MyHashSet() {
@@ -31,6 +86,30 @@ public class MyHashSet<E> implements Set<E> {
 
     //Specified Constructor
     public MyHashSet(int initialCapacity, double loadFactor) {
+        this(initialCapacity, loadFactor, HashingStrategy.defaultStrategy());
+    }
+
+    //Strategy Constructor
+    public MyHashSet(HashingStrategy<? super E> strategy) {
+        this(DEFAULT_INT_CAP, .75, strategy);
+    }
+
+    //Capacity and Strategy Constructor
+    public MyHashSet(int initialCapacity, HashingStrategy<? super E> strategy) {
+        this(initialCapacity, .75, strategy);
+    }
+
+    /**
+     * Constructs an empty set which hashes and compares its elements with the given strategy rather than with
+     * their own {@code hashCode} and {@code equals}.
+     *
+     * @param initialCapacity the number of buckets allocated once the set outgrows its small-set array
+     * @param loadFactor      the ratio of size to buckets past which the set is resized
+     * @param strategy        the hash and equality functions to apply to elements
+     * @throws IllegalArgumentException if the load factor is not positive or the capacity is negative
+     * @throws NullPointerException     if the strategy is null
+     */
+    public MyHashSet(int initialCapacity, double loadFactor, HashingStrategy<? super E> strategy) {
         if (loadFactor <= 0) {
             throw new IllegalArgumentException("load factor must be greater than 0");
         }
@@ -39,11 +118,192 @@ public class MyHashSet<E> implements Set<E> {
             throw new IllegalArgumentException("capacity cannot be negative");
         }
 
-        backingStore = new List[initialCapacity];
+        //The table itself is not allocated until the set outgrows smallStore
+        INITIAL_CAPACITY = initialCapacity > 0 ? initialCapacity : DEFAULT_INT_CAP;
         LOAD_FACTOR = loadFactor;
+        this.loadFactor = loadFactor;
+        this.strategy = Objects.requireNonNull(strategy, "hashing strategy cannot be null");
     }
 
 
+    /**
+     * Builds a set from the elements of a stream, using the default hashing strategy.
+     *
+     * @param elements the elements to collect; duplicates are dropped
+     * @param <E>      the type of elements
+     * @return a new set holding the distinct elements of the stream
+     * @see #collect(Stream, HashingStrategy)
+     */
+    public static <E> MyHashSet<E> collect(Stream<? extends E> elements) {
+        return collect(elements, HashingStrategy.defaultStrategy());
+    }
+
+    /**
+     * Builds a set from the elements of a stream in parallel, sizing its table exactly once.
+     *
+     * <p>The build runs in two stages on the common fork/join pool. First the stream is consumed in parallel,
+     * each element being hashed once and dropped into one of a fixed number of partitions by the low bits of its
+     * hash. Once the element count is known, a table of power-of-two length is allocated for it. As the table is
+     * at least as long as there are partitions, every partition owns a disjoint set of buckets, so the
+     * partitions are then inserted concurrently with no locking and no {@code refactor()} pass.
+     *
+     * @param elements the elements to collect; duplicates are dropped
+     * @param strategy the hash and equality functions to apply to elements
+     * @param <E>      the type of elements
+     * @return a new set holding the distinct elements of the stream
+     * @throws NullPointerException if the stream or strategy is null
+     */
+    public static <E> MyHashSet<E> collect(Stream<? extends E> elements, HashingStrategy<? super E> strategy) {
+        Objects.requireNonNull(strategy, "hashing strategy cannot be null");
+
+        Partitions parts = elements.parallel().collect(
+                () -> new Partitions(BULK_PARTITIONS),
+                (p, el) -> p.add(el, (el == null) ? 0 : strategy.computeHashCode(el)),
+                Partitions::merge);
+
+        //Smallest power of two that holds every element under the default load factor, and no fewer buckets than partitions
+        long needed = Math.max((long) Math.ceil(parts.total() / .75) + 1, Math.max(DEFAULT_INT_CAP, BULK_PARTITIONS));
+        int capacity = (int) Math.min(Long.highestOneBit(needed - 1) << 1, 1 << 30);
+
+        //The bulk table is allocated here, once; after a clear() the set starts over at the default capacity
+        MyHashSet<E> built = new MyHashSet<>(DEFAULT_INT_CAP, .75, strategy);
+        built.backingStore = new List[capacity];
+
+        int[] hashSums = new int[BULK_PARTITIONS];
+        int added = IntStream.range(0, BULK_PARTITIONS).parallel().map(p -> built.fillPartition(parts, p, hashSums)).sum();
+
+        built.size = added;
+        built.hashSum = Arrays.stream(hashSums).sum();
+        built.mod_count++;
+
+        return built;
+    }
+
+    /**
+     * Builds a set from the lines of a UTF-8 text file, parsing the lines in parallel.
+     *
+     * @param path   the file to read
+     * @param parser turns each line into an element; called concurrently from several threads
+     * @param <E>    the type of elements
+     * @return a new set holding the distinct elements parsed from the file
+     * @throws IOException if the file cannot be opened or read
+     * @see #collect(Stream, HashingStrategy)
+     */
+    public static <E> MyHashSet<E> load(Path path, KeyParser<? extends E> parser) throws IOException {
+        return load(path, parser, HashingStrategy.defaultStrategy());
+    }
+
+    /**
+     * Builds a set from the lines of a UTF-8 text file, parsing the lines in parallel and comparing the parsed
+     * elements with the given strategy.
+     *
+     * @param path     the file to read
+     * @param parser   turns each line into an element; called concurrently from several threads
+     * @param strategy the hash and equality functions to apply to elements
+     * @param <E>      the type of elements
+     * @return a new set holding the distinct elements parsed from the file
+     * @throws IOException if the file cannot be opened or read
+     */
+    public static <E> MyHashSet<E> load(Path path, KeyParser<? extends E> parser, HashingStrategy<? super E> strategy) throws IOException {
+        Objects.requireNonNull(parser);
+
+        //Files.lines splits a UTF-8 file into byte ranges, so the parallel stream really does read in parallel
+        try (Stream<String> lines = Files.lines(path)) {
+            return collect(lines.map(parser::parse), strategy);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Inserts one partition of a bulk build into the table. Each partition only ever touches buckets whose index
+     * is congruent to the partition number, so partitions may be filled concurrently.
+     *
+     * @param hashSums receives, at the partition's index, the sum of the hashes of the elements inserted
+     * @return the number of distinct elements inserted
+     */
+    private int fillPartition(Partitions parts, int partition, int[] hashSums) {
+        Object[] els = parts.elements[partition];
+        int[] hashes = parts.hashes[partition];
+        int added = 0;
+
+        for (int i = 0; i < parts.counts[partition]; i++) {
+            int indexToAddTo = indexForHash(hashes[i]);
+
+            if (backingStore[indexToAddTo] == null)
+                backingStore[indexToAddTo] = new ArrayList<>();
+
+            if (positionInBucket(backingStore[indexToAddTo], els[i]) < 0) {
+                backingStore[indexToAddTo].add((E) els[i]);
+                hashSums[partition] += hashes[i];
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Accumulates stream elements and their hashes into partitions chosen by the low bits of the hash. One
+     * instance is made per fork/join leaf, and leaves are merged by concatenating matching partitions.
+     */
+    private static final class Partitions {
+        final Object[][] elements;
+        final int[][] hashes;
+        final int[] counts;
+
+        Partitions(int partitionCount) {
+            elements = new Object[partitionCount][];
+            hashes = new int[partitionCount][];
+            counts = new int[partitionCount];
+        }
+
+        void add(Object el, int hash) {
+            //Equal to indexForHash(hash) modulo the partition count for any power-of-two table of at least that length
+            int p = Math.abs(hash) & (counts.length - 1);
+
+            if (elements[p] == null) {
+                elements[p] = new Object[8];
+                hashes[p] = new int[8];
+            } else if (counts[p] == elements[p].length) {
+                elements[p] = Arrays.copyOf(elements[p], counts[p] * 2);
+                hashes[p] = Arrays.copyOf(hashes[p], counts[p] * 2);
+            }
+
+            elements[p][counts[p]] = el;
+            hashes[p][counts[p]++] = hash;
+        }
+
+        Partitions merge(Partitions other) {
+            for (int p = 0; p < counts.length; p++) {
+                if (other.counts[p] == 0)
+                    continue;
+
+                if (counts[p] == 0) {
+                    elements[p] = other.elements[p];
+                    hashes[p] = other.hashes[p];
+                    counts[p] = other.counts[p];
+                    continue;
+                }
+
+                int merged = counts[p] + other.counts[p];
+                elements[p] = Arrays.copyOf(elements[p], merged);
+                hashes[p] = Arrays.copyOf(hashes[p], merged);
+                System.arraycopy(other.elements[p], 0, elements[p], counts[p], other.counts[p]);
+                System.arraycopy(other.hashes[p], 0, hashes[p], counts[p], other.counts[p]);
+                counts[p] = merged;
+            }
+            return this;
+        }
+
+        long total() {
+            long total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
     /**
      * Returns the number of elements in this set (its cardinality).  If this
      * set contains more than {@code Integer.MAX_VALUE} elements, returns
@@ -87,11 +347,74 @@ public class MyHashSet<E> implements Set<E> {
             classCompatibilityCheck(o);
         }
 
-        //Index of interior list to be checked. Normally the local hash-code is called
-        // but if the passed value is null, that needs to be hard-coded to 0, as null has no hash ability, and no other value can be assured to be in the outer index
-        int indexToCheck = (o == null) ? 0 : Math.abs(Objects.hashCode(o)) % backingStore.length;
+        if (backingStore == null)
+            return positionInSmallStore(o) >= 0;
+
+        int indexToCheck = indexFor(o);
 
-        return backingStore[indexToCheck] != null && backingStore[indexToCheck].contains(o);
+        return backingStore[indexToCheck] != null && positionInBucket(backingStore[indexToCheck], o) >= 0;
+    }
+
+    /**
+     * Returns the index of the interior list in which the given element belongs.
+     *
+     * @param o the element to locate, possibly {@code null}
+     * @return the index into {@code backingStore} of the element's interior list
+     */
+    private int indexFor(Object o) {
+        //Normally the strategy's hash-code is called, but if the passed value is null, that needs to be hard-coded to 0,
+        // as null has no hash ability, and no other value can be assured to be in the outer index
+        return indexForHash(hashOf(o));
+    }
+
+    private int hashOf(Object o) {
+        return (o == null) ? 0 : strategy.computeHashCode((E) o);
+    }
+
+    private int indexForHash(int hash) {
+        return indexForHash(hash, backingStore.length);
+    }
+
+    /**
+     * Maps a hash to a bucket of a table. Shared with {@link MyHashMultiset}, which lays out its table the same way.
+     *
+     * @param hash    the element's hash under the table's strategy
+     * @param buckets the length of the table
+     * @return the index of the bucket the hash belongs in
+     */
+    static int indexForHash(int hash, int buckets) {
+        //Equal to Math.abs(hash) % buckets, except that it stays in range for Integer.MIN_VALUE
+        return Math.abs(hash % buckets);
+    }
+
+    /**
+     * Searches an interior list for an element equal to the given one under this set's hashing strategy.
+     * This replaces {@code List.contains} and {@code List.indexOf}, which are bound to the elements' own {@code equals}.
+     *
+     * @param bucket the interior list to search
+     * @param o      the element to look for, possibly {@code null}
+     * @return the position of the matching element in the list, or -1 if there is none
+     */
+    private int positionInBucket(List<E> bucket, Object o) {
+        for (int i = 0; i < bucket.size(); i++) {
+            if (strategy.equals(bucket.get(i), (E) o))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Searches the small-set array for an element equal to the given one under this set's hashing strategy.
+     *
+     * @param o the element to look for, possibly {@code null}
+     * @return the position of the matching element in {@code smallStore}, or -1 if there is none
+     */
+    private int positionInSmallStore(Object o) {
+        for (int i = 0; i < size; i++) {
+            if (strategy.equals((E) smallStore[i], (E) o))
+                return i;
+        }
+        return -1;
     }
 
     /**
@@ -103,7 +426,32 @@ public class MyHashSet<E> implements Set<E> {
      */
     @Override
     public Iterator<E> iterator() {
-        return new MyIterator();
+        return backingStore == null ? new SmallIterator() : new MyIterator();
+    }
+
+    /**
+     * This private inner class iterates over the elements of a set that is still small, walking the packed
+     * front of {@code smallStore}.
+     */
+    private class SmallIterator implements Iterator<E> {
+        int cursor = 0;
+        int originalModCount = mod_count;
+
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        public E next() {
+            //check for concurrent mod
+            if (originalModCount != mod_count)
+                throw new ConcurrentModificationException("The Iterator has detected a modification to the Set. This is not allowed.");
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return (E) smallStore[cursor++];
+        }
     }
 
     /**
@@ -308,13 +656,31 @@ public class MyHashSet<E> implements Set<E> {
 
         boolean returnVal = false;
 
+        if (backingStore == null) {
+            if (positionInSmallStore(e) >= 0)
+                return false;
+
+            if (size < SMALL_SET_LIMIT) {
+                addToSmallStore(e);
+                recordChange(e, true);
+                return true;
+            }
+
+            //One element too many to scan linearly, so move to a hashed table and add there
+            promote();
+        }
+
+        if (adaptive && samples >= ADAPT_WINDOW)
+            adjustLoadFactor();
+
         //check is this Set has become unbalanced and balances it if it has
-        if (size() > backingStore.length * LOAD_FACTOR)
+        if (size() > backingStore.length * loadFactor)
             refactor();
 
         //The actual add logic only gets run if the Set doesn't already contain the passed el
         if (!contains(e)) {
             returnVal = addNotDuple(e);
+            recordChange(e, true);
         }
 
         return returnVal;
@@ -339,8 +705,8 @@ public class MyHashSet<E> implements Set<E> {
      * element and the addition is successful; {@code false} otherwise
      */
     private boolean addNotDuple(Object e) {
-        //Index of interior list to be amended. Normally the local hash-code is called, but if the passed value is null, that needs to be hard-coded to 0.
-        int indexToAddTo = (e == null) ? 0 : Math.abs(Objects.hashCode(e)) % backingStore.length;
+        //Index of interior list to be amended.
+        int indexToAddTo = indexFor(e);
 
         //If there is no array at that index, initialize one.
         if (backingStore[indexToAddTo] == null)
@@ -349,6 +715,13 @@ public class MyHashSet<E> implements Set<E> {
 
         List<E> listToAmend = backingStore[indexToAddTo];
 
+        //For a new key under uniform hashing, the bucket it lands in holds size / buckets elements on average
+        if (adaptive) {
+            observedBucketLengths += listToAmend.size();
+            expectedBucketLengths += (double) size / backingStore.length;
+            samples++;
+        }
+
         //checks for an overflow, and then trips the flag. This cannot be undone except by refactor() of clear().
         if (!overFlowFlag && size + 1 == Integer.MAX_VALUE)
             overFlowFlag = true;
@@ -359,10 +732,47 @@ public class MyHashSet<E> implements Set<E> {
         //meta data modification
         size++;
         mod_count++;
+        hashSum += hashOf(e);
 
         return returnVal;
     }
 
+    /**
+     * Appends an element known to be absent to the small-set array, allocating the array on first use.
+     *
+     * @param e the element to be added
+     * @return {@code true}, as the element is always added
+     */
+    private boolean addToSmallStore(Object e) {
+        if (smallStore == null)
+            smallStore = new Object[SMALL_SET_LIMIT];
+
+        smallStore[size++] = e;
+        mod_count++;
+        hashSum += hashOf(e);
+
+        return true;
+    }
+
+    /**
+     * Moves the elements of the small-set array into a newly allocated hashed table of the initial capacity, after
+     * which the set stays in hashed mode until it is cleared.
+     */
+    private void promote() {
+        Object[] holdingRay = Arrays.copyOf(smallStore, size);
+
+        backingStore = new List[INITIAL_CAPACITY];
+        smallStore = null;
+
+        //addNotDuple() recounts both as it goes
+        size = 0;
+        hashSum = 0;
+
+        for (Object el : holdingRay) {
+            addNotDuple(el);
+        }
+    }
+
     /**
      * Resizes the backing store of the set, doubling its capacity. This method
      * is invoked when the size of the set exceeds a certain threshold.
@@ -394,18 +804,29 @@ public class MyHashSet<E> implements Set<E> {
         //copy out of storage to new struct
         //it is necessary that a refactor not double count length.
         size = 0;
+        hashSum = 0;
         overFlowFlag = false;
 
+        //Re-adding is not a change to the set's contents, so it must not reach the change log, nor skew the samples
+        ChangeLog log = changes;
+        boolean sampling = adaptive;
+        changes = null;
+        adaptive = false;
+
         for (Object el : holdingRay) {
             add(el);
         }
+
+        changes = log;
+        adaptive = sampling;
+        resetSamples();
     }
 
     /**
      * Removes the specified element from this set if it is present
      * (optional operation).  More formally, removes an element {@code e}
      * such that
-     * {@code Objects.equals(o, e)}, if
+     * {@code Objects.equals(o, e)} (or that this set's {@link HashingStrategy} deems equal to {@code o}), if
      * this set contains such an element.  Returns {@code true} if this set
      * contained the element (or equivalently, if this set changed as a
      * result of the call).  (This set will not contain the element once the
@@ -426,11 +847,20 @@ public class MyHashSet<E> implements Set<E> {
     public boolean remove(Object o) {
         classCompatibilityCheck(o);
 
-        //Index of interior list to remove from. Normally the local hash-code is called, but if the passed value is null, that needs to be hard-coded to 0.
-        int indexToRemoveFrom = (o == null) ? 0 : Math.abs(Objects.hashCode(o)) % backingStore.length;
+        if (backingStore == null)
+            return removeFromSmallStore(o);
 
-        //return false if there is no list at the given index, otherwise return is equal to the return of the local remove method
-        boolean returnVal = backingStore[indexToRemoveFrom] != null && backingStore[indexToRemoveFrom].remove(o);
+        //Index of interior list to remove from.
+        int indexToRemoveFrom = indexFor(o);
+
+        //return false if there is no list at the given index, or if the strategy finds no match in that list
+        int position = backingStore[indexToRemoveFrom] == null ? -1 : positionInBucket(backingStore[indexToRemoveFrom], o);
+        boolean returnVal = position >= 0;
+
+        //The stored element's hash is the one to subtract; under a custom strategy it need not be o's own
+        E removed = returnVal ? backingStore[indexToRemoveFrom].remove(position) : null;
+        if (returnVal)
+            hashSum -= hashOf(removed);
 
         //If something was removed, check if its list is now empty, and if so clear it. Dropping empty lists helps my iterator method.
         if (returnVal && backingStore[indexToRemoveFrom].isEmpty())
@@ -440,11 +870,35 @@ public class MyHashSet<E> implements Set<E> {
         if (returnVal) {
             size--;
             mod_count++;
+            recordChange(removed, false);
         }
 
         return returnVal;
     }
 
+    /**
+     * Removes an element from the small-set array, filling its position with the last element so the array stays
+     * packed.
+     *
+     * @param o object to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element
+     */
+    private boolean removeFromSmallStore(Object o) {
+        int position = positionInSmallStore(o);
+
+        if (position < 0)
+            return false;
+
+        Object removed = smallStore[position];
+        hashSum -= hashOf(removed);
+        smallStore[position] = smallStore[--size];
+        smallStore[size] = null;
+        mod_count++;
+        recordChange(removed, false);
+
+        return true;
+    }
+
     /**
      * Returns {@code true} if this set contains all of the elements of the
      * specified collection.  If the specified collection is also a set, this
@@ -585,10 +1039,393 @@ public class MyHashSet<E> implements Set<E> {
      */
     @Override
     public void clear() {
-        backingStore = new List[DEFAULT_INT_CAP];
+        //Back to an unallocated small set
+        backingStore = null;
+        smallStore = null;
         size = 0;
+        hashSum = 0;
         overFlowFlag = false;
         mod_count++;
+
+        if (changes != null)
+            changes.cleared(mod_count);
+    }
+
+    /**
+     * Compares the specified object with this set for equality.  Returns
+     * {@code true} if the specified object is also a set, the two sets
+     * have the same size, and every member of the specified set is
+     * contained in this set.
+     *
+     * <p>The comparison short-circuits on the cheap checks first. Sets of different sizes are unequal, and
+     * another MyHashSet using the same hashing strategy is unequal if its cached {@link #hashCode()} differs.
+     * Only sets that pass both are probed element by element.
+     *
+     * @param o object to be compared for equality with this set
+     * @return {@code true} if the specified object is equal to this set
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+
+        if (!(o instanceof Set))
+            return false;
+
+        Set<?> other = (Set<?>) o;
+
+        if (other.size() != size())
+            return false;
+
+        //Cached hashes are only comparable between sets that hash their elements the same way
+        if (other instanceof MyHashSet && ((MyHashSet<?>) other).strategy == strategy && ((MyHashSet<?>) other).hashSum != hashSum)
+            return false;
+
+        try {
+            return containsAll(other);
+        } catch (ClassCastException | NullPointerException unused) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the hash code value for this set, the sum of the hash codes of its elements, where the hash code of
+     * a {@code null} element is zero. The sum is maintained as elements are added and removed, so this method
+     * runs in constant time.
+     *
+     * <p>With the default hashing strategy this is exactly the value required by {@link Set#hashCode()}. With
+     * any other strategy the strategy's hashes are summed instead, so that sets equal under the strategy have
+     * equal hash codes; like such sets' notion of equality, this departs from the general {@code Set} contract.
+     *
+     * @return the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        return hashSum;
+    }
+
+    /**
+     * Returns the current version of this set. The version advances whenever the set is modified, and is what
+     * {@link #deltaSince(int)} measures changes from.
+     *
+     * @return the current version of this set
+     */
+    public int version() {
+        return mod_count;
+    }
+
+    /**
+     * Starts logging the elements this set adds and removes, if it is not doing so already. A follower that copies
+     * the set now can later be brought up to date with {@code deltaSince} the returned version.
+     *
+     * @return the current version of this set
+     */
+    public int trackChanges() {
+        if (changes == null)
+            changes = new ChangeLog(mod_count);
+
+        return mod_count;
+    }
+
+    /**
+     * @return {@code true} if this set is logging its changes
+     */
+    public boolean isTrackingChanges() {
+        return changes != null;
+    }
+
+    /**
+     * Returns the net change to this set since the given version: the elements added and removed, with an add
+     * and a later remove of the same element cancelling out. Computing it takes time proportional to the number
+     * of changes since that version, not to the size of the set.
+     *
+     * <p>If the set was cleared since that version and nothing has been discarded since the clear, the delta is
+     * a reset holding every element added after the clear.
+     *
+     * @param version a version previously returned by {@link #version()} or {@link #trackChanges()}, or the
+     *                {@link SetDelta#toVersion()} of an earlier delta
+     * @return the net change from that version to the current one
+     * @throws IllegalStateException    if changes are not being tracked, or the changes since that version have
+     *                                  been discarded; the follower must then copy the whole set again
+     * @throws IllegalArgumentException if the version is newer than this set
+     */
+    public SetDelta<E> deltaSince(int version) {
+        if (changes == null) {
+            throw new IllegalStateException("changes are not being tracked");
+        }
+
+        if (version > mod_count) {
+            throw new IllegalArgumentException("version " + version + " is newer than the set");
+        }
+
+        boolean reset = version < changes.floor;
+        if (reset && !changes.clearedAtFloor) {
+            throw new IllegalStateException("changes since version " + version + " are no longer tracked");
+        }
+
+        //The log only holds real changes, so an element's entries alternate between add and remove; pairs cancel
+        MyHashSet<E> added = new MyHashSet<>(strategy), removed = new MyHashSet<>(strategy);
+
+        for (int i = changes.firstAfter(version); i < changes.count; i++) {
+            Object el = changes.elements[i];
+
+            if (changes.additions[i]) {
+                if (!removed.remove(el))
+                    added.add(el);
+            } else if (!added.remove(el)) {
+                removed.add(el);
+            }
+        }
+
+        return new SetDelta<>(version, mod_count, reset, new ArrayList<>(added), new ArrayList<>(removed));
+    }
+
+    /**
+     * Brings this set up to date with a delta taken from another set: clears it if the delta is a reset, then
+     * removes and adds the delta's elements. If this set tracks its own changes they are logged as usual, so
+     * followers may be chained.
+     *
+     * @param delta the delta to apply
+     * @return {@code true} if this set changed as a result of the call
+     * @throws NullPointerException if the delta is null
+     */
+    public boolean applyDelta(SetDelta<? extends E> delta) {
+        int oldMod = mod_count;
+
+        if (delta.isReset() && size > 0)
+            clear();
+
+        for (E el : delta.removed()) {
+            remove(el);
+        }
+
+        for (E el : delta.added()) {
+            add(el);
+        }
+
+        //Check for modification
+        return mod_count != oldMod;
+    }
+
+    /**
+     * Drops the logged changes up to and including the given version, once every follower has seen it. Deltas
+     * can no longer be taken from versions before it.
+     *
+     * @param version the oldest version deltas will still be taken from
+     * @throws IllegalStateException if changes are not being tracked
+     */
+    public void discardChangesThrough(int version) {
+        if (changes == null) {
+            throw new IllegalStateException("changes are not being tracked");
+        }
+
+        changes.discardThrough(Math.min(version, mod_count));
+    }
+
+    private void recordChange(Object el, boolean addition) {
+        if (changes != null)
+            changes.record(el, addition, mod_count);
+    }
+
+    /**
+     * The elements added and removed since the floor version, in order, each with the version it produced.
+     */
+    private static final class ChangeLog {
+        Object[] elements = new Object[16];
+        int[] versions = new int[16];
+        boolean[] additions = new boolean[16];
+        int count = 0;
+        //Oldest version a delta can be taken from, and whether the set was cleared at exactly that version
+        int floor;
+        boolean clearedAtFloor = false;
+
+        ChangeLog(int floor) {
+            this.floor = floor;
+        }
+
+        void record(Object el, boolean addition, int version) {
+            if (count == elements.length) {
+                elements = Arrays.copyOf(elements, count * 2);
+                versions = Arrays.copyOf(versions, count * 2);
+                additions = Arrays.copyOf(additions, count * 2);
+            }
+
+            elements[count] = el;
+            versions[count] = version;
+            additions[count++] = addition;
+        }
+
+        //Nothing before a clear matters to any follower: one behind it gets a reset, one past it needs nothing older
+        void cleared(int version) {
+            elements = new Object[16];
+            versions = new int[16];
+            additions = new boolean[16];
+            count = 0;
+            floor = version;
+            clearedAtFloor = true;
+        }
+
+        int firstAfter(int version) {
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (versions[mid] <= version)
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+            return lo;
+        }
+
+        void discardThrough(int version) {
+            if (version <= floor)
+                return;
+
+            int from = firstAfter(version);
+            System.arraycopy(elements, from, elements, 0, count - from);
+            System.arraycopy(versions, from, versions, 0, count - from);
+            System.arraycopy(additions, from, additions, 0, count - from);
+            Arrays.fill(elements, count - from, count, null);
+            count -= from;
+            floor = version;
+            clearedAtFloor = false;
+        }
+    }
+
+    /**
+     * Returns the load factor past which this set is resized. This is the one given at construction unless
+     * {@link #adaptLoadFactor(double, double)} has since moved it.
+     *
+     * @return the current load factor
+     */
+    public double loadFactor() {
+        return loadFactor;
+    }
+
+    /**
+     * Lets this set tune its own load factor, within the given bounds, from the bucket lengths its inserts meet.
+     * Every {@value #ADAPT_WINDOW} inserts the lengths seen are compared with those uniform hashing would give at
+     * the same density. If they are {@value #HIGH_COLLISION_RATIO} times longer, the load factor is lowered so
+     * that the table grows sooner; if they are within {@value #LOW_COLLISION_RATIO} times, it is raised so that the
+     * table runs denser. The current load factor is first clamped into the bounds.
+     *
+     * @param minLoadFactor the lowest load factor to adapt down to
+     * @param maxLoadFactor the highest load factor to adapt up to
+     * @throws IllegalArgumentException if the minimum is not positive or exceeds the maximum
+     */
+    public void adaptLoadFactor(double minLoadFactor, double maxLoadFactor) {
+        if (minLoadFactor <= 0 || minLoadFactor > maxLoadFactor) {
+            throw new IllegalArgumentException("load factor bounds must satisfy 0 < min <= max");
+        }
+
+        this.minLoadFactor = minLoadFactor;
+        this.maxLoadFactor = maxLoadFactor;
+        loadFactor = Math.min(Math.max(loadFactor, minLoadFactor), maxLoadFactor);
+        adaptive = true;
+        resetSamples();
+    }
+
+    private void adjustLoadFactor() {
+        //Too few elements for lengths to mean anything yet; keep sampling
+        if (expectedBucketLengths < 1)
+            return;
+
+        double ratio = observedBucketLengths / expectedBucketLengths;
+
+        if (ratio > HIGH_COLLISION_RATIO)
+            loadFactor = Math.max(minLoadFactor, loadFactor / ADAPT_STEP);
+        else if (ratio < LOW_COLLISION_RATIO)
+            loadFactor = Math.min(maxLoadFactor, loadFactor * ADAPT_STEP);
+
+        resetSamples();
+    }
+
+    private void resetSamples() {
+        observedBucketLengths = 0;
+        expectedBucketLengths = 0;
+        samples = 0;
+    }
+
+    /**
+     * Returns an estimate of the heap this set's own structure retains: the set object, its table and its
+     * interior lists, but not the elements. It is computed from the table and list sizes without walking the
+     * elements, so it costs time proportional to the number of buckets.
+     *
+     * @return the estimated retained size of this set's structure, in bytes
+     * @see #memoryFootprint()
+     */
+    public long estimatedRetainedBytes() {
+        return memoryFootprint().structuralBytes();
+    }
+
+    /**
+     * Returns an estimate of the heap this set retains including its elements, whose sizes are supplied by the
+     * given sizer. The sizer is called once per non-null element, and should report what the set alone keeps alive
+     * (for instance, nothing for interned or cached values).
+     *
+     * @param elementSizer reports the retained size of an element, in bytes
+     * @return the estimated retained size of this set and its elements, in bytes
+     */
+    public long estimatedRetainedBytes(ToLongFunction<? super E> elementSizer) {
+        return memoryFootprint(elementSizer).totalBytes();
+    }
+
+    /**
+     * Returns a breakdown of the heap this set's own structure retains, excluding its elements.
+     *
+     * @return the structural memory footprint of this set
+     */
+    public MemoryFootprint memoryFootprint() {
+        return footprint(null);
+    }
+
+    /**
+     * Returns a breakdown of the heap this set retains, with element sizes supplied by the given sizer.
+     *
+     * @param elementSizer reports the retained size of an element, in bytes
+     * @return the memory footprint of this set and its elements
+     * @throws NullPointerException if the sizer is null
+     */
+    public MemoryFootprint memoryFootprint(ToLongFunction<? super E> elementSizer) {
+        return footprint(Objects.requireNonNull(elementSizer));
+    }
+
+    private MemoryFootprint footprint(ToLongFunction<? super E> elementSizer) {
+        long tableBytes = 0, bucketBytes = 0, slackBytes = 0, elementBytes = 0;
+
+        if (backingStore == null) {
+            if (smallStore != null) {
+                tableBytes = MemoryFootprint.referenceArrayBytes(smallStore.length);
+                slackBytes = (long) (smallStore.length - size) * MemoryFootprint.REFERENCE_BYTES;
+            }
+        } else {
+            tableBytes = MemoryFootprint.referenceArrayBytes(backingStore.length);
+
+            for (List<E> bucket : backingStore) {
+                if (bucket == null) {
+                    slackBytes += MemoryFootprint.REFERENCE_BYTES;
+                    continue;
+                }
+
+                //ArrayList hides its capacity, so replay its growth policy; lists never shrink, so this is a lower bound
+                int capacity = LIST_FIRST_CAPACITY;
+                while (capacity < bucket.size()) {
+                    capacity += capacity >> 1;
+                }
+
+                bucketBytes += ARRAY_LIST_BYTES + MemoryFootprint.referenceArrayBytes(capacity);
+                slackBytes += (long) (capacity - bucket.size()) * MemoryFootprint.REFERENCE_BYTES;
+            }
+        }
+
+        if (elementSizer != null) {
+            for (E el : this) {
+                if (el != null)
+                    elementBytes += elementSizer.applyAsLong(el);
+            }
+        }
+
+        return new MemoryFootprint(SET_BYTES, tableBytes, bucketBytes, slackBytes, elementBytes, size());
     }
 
     private void classCompatibilityCheck(Object o) {
@@ -0,0 +1,442 @@
+import java.lang.reflect.Array;
+import java.util.*;
+
+/**
+ * MyOrderedHashSet is an insertion-ordered implementation of the Set interface.
+ *
+ * <p>Elements are appended to a dense array in the order they are first added, and the hash table holds only
+ * {@code int} indices into that array, in the manner of CPython's compact dict. Iteration is therefore a
+ * sequential scan of the dense array, and each element costs one reference, one cached hash and a fraction of
+ * an index slot, well under the per-entry doubly linked node of a {@link LinkedHashSet}.
+ *
+ * <p>Removing an element leaves a tombstone in the dense array; tombstones are squeezed out the next time
+ * the table is resized. Like {@link MyHashSet}, this set permits {@code null} and accepts a
+ * {@link HashingStrategy}.
+ *
+ * <p>Equality is that of {@link AbstractSet}: iteration order plays no part, so an ordered set equals any other
+ * set with the same elements.
+ *
+ * @param <E> the type of elements maintained by this set
+ * @see MyHashSet
+ * @see LinkedHashSet
+ */
+public class MyOrderedHashSet<E> extends AbstractSet<E> {
+    //Marks a removed position in the dense array. null cannot be used, as null is a legal element.
+    private static final Object TOMBSTONE = new Object();
+    //Values held by the index table besides (entry position + 1)
+    private static final int EMPTY = 0, DELETED = -1;
+    private static final int DEFAULT_INT_CAP = 16;
+
+    private Object[] entries;
+    private int[] hashes;
+    private int[] index;
+    private final double LOAD_FACTOR;
+    private final HashingStrategy<? super E> strategy;
+    //'used' counts every position filled in the dense array, tombstones included, and so every index slot that is not EMPTY
+    private int size = 0, used = 0, mod_count = 0;
+
+    //Default Constructor
+    public MyOrderedHashSet() {
+        this(DEFAULT_INT_CAP, .75);
+    }
+
+    //Capacity Constructor
+    public MyOrderedHashSet(int initialCapacity) {
+        this(initialCapacity, .75);
+    }
+
+    //Specified Constructor
+    public MyOrderedHashSet(int initialCapacity, double loadFactor) {
+        this(initialCapacity, loadFactor, HashingStrategy.defaultStrategy());
+    }
+
+    //Strategy Constructor
+    public MyOrderedHashSet(HashingStrategy<? super E> strategy) {
+        this(DEFAULT_INT_CAP, .75, strategy);
+    }
+
+    /**
+     * Constructs an empty insertion-ordered set.
+     *
+     * @param initialCapacity the number of elements the set can hold before it first resizes
+     * @param loadFactor      the ratio of occupied index slots past which the set is resized; the index is
+     *                        open-addressed, so this must be below 1
+     * @param strategy        the hash and equality functions to apply to elements
+     * @throws IllegalArgumentException if the load factor is not in (0, 1) or the capacity is negative
+     * @throws NullPointerException     if the strategy is null
+     */
+    public MyOrderedHashSet(int initialCapacity, double loadFactor, HashingStrategy<? super E> strategy) {
+        if (loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("load factor must be greater than 0 and less than 1");
+        }
+
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative");
+        }
+
+        LOAD_FACTOR = loadFactor;
+        this.strategy = Objects.requireNonNull(strategy, "hashing strategy cannot be null");
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    /**
+     * Returns the number of elements in this set (its cardinality).
+     *
+     * @return the number of elements in this set (its cardinality)
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this set contains no elements.
+     *
+     * @return {@code true} if this set contains no elements
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this set contains the specified element.
+     *
+     * @param o element whose presence in this set is to be tested
+     * @return {@code true} if this set contains the specified element
+     */
+    @Override
+    public boolean contains(Object o) {
+        return findSlot(o, hash(o)) >= 0;
+    }
+
+    /**
+     * Returns an iterator over the elements in this set, in the order in which they were first added.
+     *
+     * @return an iterator over the elements in this set
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new OrderedIterator();
+    }
+
+    /**
+     * This private inner class walks the dense entry array from front to back, skipping tombstones.
+     */
+    private class OrderedIterator implements Iterator<E> {
+        int cursor = skipTombstones(0);
+        int originalModCount = mod_count;
+
+        public boolean hasNext() {
+            return cursor < used;
+        }
+
+        public E next() {
+            if (originalModCount != mod_count)
+                throw new ConcurrentModificationException("The Iterator has detected a modification to the Set. This is not allowed.");
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            E returnVal = (E) entries[cursor];
+            cursor = skipTombstones(cursor + 1);
+
+            return returnVal;
+        }
+    }
+
+    private int skipTombstones(int from) {
+        while (from < used && entries[from] == TOMBSTONE) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Returns an array containing all of the elements in this set, in insertion order.
+     *
+     * @return an array containing all the elements in this set
+     */
+    @Override
+    public Object[] toArray() {
+        //With no tombstones the dense array already is the answer
+        if (used == size)
+            return Arrays.copyOf(entries, size);
+
+        Object[] outRay = new Object[size];
+        int counter = 0;
+
+        for (int i = 0; i < used; i++) {
+            if (entries[i] != TOMBSTONE)
+                outRay[counter++] = entries[i];
+        }
+        return outRay;
+    }
+
+    /**
+     * Returns an array containing all of the elements in this set, in insertion order; the runtime type of
+     * the returned array is that of the specified array.
+     *
+     * @param a the array into which the elements of this set are to be stored, if it is big enough
+     * @return an array containing all the elements in this set
+     * @throws ArrayStoreException  if the runtime type of the specified array is not a supertype of the
+     *                              runtime type of every element in this set
+     * @throws NullPointerException if the specified array is null
+     */
+    @Override
+    public <T> T[] toArray(T[] a) {
+        if (a.length < size) {
+            a = (T[]) Array.newInstance(a.getClass().getComponentType(), size);
+        }
+
+        int i = 0;
+
+        for (int j = 0; j < used; j++) {
+            if (entries[j] != TOMBSTONE)
+                a[i++] = (T) entries[j];
+        }
+
+        if (i < a.length)
+            a[i] = null;
+
+        return a;
+    }
+
+    /**
+     * Adds the specified element to the end of this set's iteration order if it is not already present.
+     * Re-adding an element that is already present does not move it.
+     *
+     * @param e element to be added to this set
+     * @return {@code true} if this set did not already contain the specified element
+     */
+    @Override
+    public boolean add(E e) {
+        int hash = hash(e);
+
+        if (findSlot(e, hash) >= 0)
+            return false;
+
+        //A removed element leaves both a tombstone and a DELETED marker, which lengthens probes, so 'used' alone is
+        //the index's occupancy
+        if (used + 1 > entries.length || used + 1 > index.length * LOAD_FACTOR)
+            refactor();
+
+        entries[used] = e;
+        hashes[used] = hash;
+        index[emptySlot(hash)] = ++used;
+
+        size++;
+        mod_count++;
+
+        return true;
+    }
+
+    /**
+     * Removes the specified element from this set if it is present. The element's position in the dense
+     * array becomes a tombstone until the next resize.
+     *
+     * @param o object to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element
+     */
+    @Override
+    public boolean remove(Object o) {
+        int slot = findSlot(o, hash(o));
+
+        if (slot < 0)
+            return false;
+
+        entries[index[slot] - 1] = TOMBSTONE;
+        index[slot] = DELETED;
+
+        size--;
+        mod_count++;
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if this set contains all of the elements of the specified collection.
+     *
+     * @param c collection to be checked for containment in this set
+     * @return {@code true} if this set contains all of the elements of the specified collection
+     */
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object el : c) {
+            if (!contains(el))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds all of the elements in the specified collection to this set if they're not already present,
+     * appending them in the collection's iteration order.
+     *
+     * @param c collection containing elements to be added to this set
+     * @return {@code true} if this set changed as a result of the call
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        int oldMod = mod_count;
+
+        for (E el : c) {
+            add(el);
+        }
+
+        return mod_count != oldMod;
+    }
+
+    /**
+     * Retains only the elements in this set that are contained in the specified collection. The relative
+     * order of the retained elements is unchanged.
+     *
+     * @param c collection containing elements to be retained in this set
+     * @return {@code true} if this set changed as a result of the call
+     */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        int oldSize = size;
+
+        for (int i = 0; i < used; i++) {
+            if (entries[i] != TOMBSTONE && !c.contains(entries[i]))
+                remove(entries[i]);
+        }
+
+        return oldSize != size;
+    }
+
+    /**
+     * Removes from this set all of its elements that are contained in the specified collection.
+     *
+     * @param c collection containing elements to be removed from this set
+     * @return {@code true} if this set changed as a result of the call
+     */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        int oldSize = size;
+
+        for (Object el : c) {
+            remove(el);
+        }
+
+        return oldSize != size;
+    }
+
+    /**
+     * Removes all of the elements from this set.
+     */
+    @Override
+    public void clear() {
+        allocate(DEFAULT_INT_CAP);
+        size = 0;
+        used = 0;
+        mod_count++;
+    }
+
+    /**
+     * Returns the hash code value for this set, the sum of the hash codes of its elements, where the hash code of
+     * a {@code null} element is zero. As with {@link MyHashSet#hashCode()}, a set with a custom
+     * {@link HashingStrategy} sums the strategy's hashes instead.
+     *
+     * @return the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        int sum = 0;
+
+        //The cached hashes have had their high bits folded in, so the strategy is asked afresh
+        for (int i = 0; i < used; i++) {
+            if (entries[i] != TOMBSTONE && entries[i] != null)
+                sum += strategy.computeHashCode((E) entries[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Allocates fresh, empty storage able to hold the given number of elements without resizing.
+     */
+    private void allocate(int capacity) {
+        entries = new Object[capacity];
+        hashes = new int[capacity];
+        index = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * Rebuilds the dense array without its tombstones, and re-indexes it into a table sized for the
+     * surviving elements plus room to grow. Insertion order is preserved, as survivors are copied front to back.
+     */
+    private void refactor() {
+        //Only grow if the live elements need it; a table clogged by removals is rebuilt at its current size
+        int capacity = Math.max(entries.length, 1);
+        if (size + 1 > capacity * LOAD_FACTOR || size + 1 > capacity)
+            capacity *= 2;
+
+        Object[] oldEntries = entries;
+        int[] oldHashes = hashes;
+        int oldUsed = used;
+
+        entries = new Object[capacity];
+        hashes = new int[capacity];
+        index = new int[tableSizeFor(capacity)];
+        used = 0;
+
+        for (int i = 0; i < oldUsed; i++) {
+            if (oldEntries[i] == TOMBSTONE)
+                continue;
+
+            entries[used] = oldEntries[i];
+            hashes[used] = oldHashes[i];
+            index[emptySlot(oldHashes[i])] = ++used;
+        }
+    }
+
+    /**
+     * Returns the smallest power of two index size that keeps the given number of elements under the load factor.
+     */
+    private int tableSizeFor(int capacity) {
+        int needed = (int) Math.ceil(capacity / LOAD_FACTOR) + 1;
+        return Integer.highestOneBit(Math.max(needed - 1, 1)) << 1;
+    }
+
+    private int hash(Object o) {
+        int h = (o == null) ? 0 : strategy.computeHashCode((E) o);
+        //Fold the high bits down, as the index is masked to its low bits
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Probes the index for the given element.
+     *
+     * @return the index slot referring to the element, or -1 if it is not present
+     */
+    private int findSlot(Object o, int hash) {
+        int mask = index.length - 1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int ref = index[slot];
+
+            if (ref == EMPTY)
+                return -1;
+
+            //Compare cached hashes first so the strategy's equals only runs on likely matches
+            if (ref != DELETED && hashes[ref - 1] == hash && strategy.equals((E) entries[ref - 1], (E) o))
+                return slot;
+        }
+    }
+
+    /**
+     * Returns the first never-used index slot on the probe sequence of the given hash. DELETED slots are left
+     * in place here; they are all cleared at once by the next {@code refactor()}.
+     */
+    private int emptySlot(int hash) {
+        int mask = index.length - 1;
+        int slot = hash & mask;
+
+        while (index[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
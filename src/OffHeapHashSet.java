@@ -0,0 +1,516 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * OffHeapHashSet keeps fixed-width elements in native memory, outside the Java heap.
+ *
+ * <p>Elements are encoded by a {@link FixedWidthCodec} into the slots of an open-addressed, linearly probed table
+ * held in direct {@link ByteBuffer} pages. Apart from a handful of page references the set owns no heap objects,
+ * however many elements it holds, so the garbage collector has nothing of it to trace and collection pauses do
+ * not grow with the set. Elements are compared by their encoded bytes, and are only turned back into objects
+ * when iterated.
+ *
+ * <p>The pages are direct buffers, so the table counts against {@code -XX:MaxDirectMemorySize} rather than the
+ * heap. The native memory is released by {@link #close()} rather than by the collector; a closed set throws
+ * {@link IllegalStateException} on use. Resizing allocates a table of double the size, rehashes into it and
+ * releases the old one at once. The set does not permit {@code null}.
+ *
+ * <p>Each lookup encodes its key into a buffer of its own, so any number of threads may read the set at once as
+ * long as none is writing to it. Writes need outside locking, against readers as well as other writers.
+ *
+ * <p>Equality is that of {@link AbstractSet}, by encoding. The hash code sums
+ * {@link FixedWidthCodec#hash(Object)} over the elements, which for the {@code byte[]} codec is the hash of
+ * each array's contents.
+ *
+ * @param <E> the type of elements maintained by this set
+ * @see FixedWidthCodec
+ * @see MyHashSet
+ */
+public class OffHeapHashSet<E> extends AbstractSet<E> implements AutoCloseable {
+    //Slot states, stored in the first byte of every slot
+    private static final byte EMPTY = 0, FULL = 1, DELETED = 2;
+    private static final int DEFAULT_INT_CAP = 16;
+    //Largest page; pages hold a power-of-two number of slots, so a slot never straddles two pages
+    private static final int MAX_PAGE_BYTES = 1 << 30;
+
+    private final FixedWidthCodec<E> codec;
+    private final int width, stride;
+    private final double LOAD_FACTOR;
+
+    private ByteBuffer[] pages;
+    private long capacity;
+    private int pageShift;
+    private long pageMask;
+    private int size = 0, deleted = 0, mod_count = 0;
+    private boolean closed = false;
+
+    //Codec Constructor
+    public OffHeapHashSet(FixedWidthCodec<E> codec) {
+        this(codec, DEFAULT_INT_CAP, .75);
+    }
+
+    /**
+     * Constructs an empty off-heap set.
+     *
+     * @param codec           converts elements to and from their fixed-width encoding
+     * @param initialCapacity the number of elements the set can hold before it first resizes
+     * @param loadFactor      the ratio of used slots past which the set is resized; must be below 1
+     * @throws IllegalArgumentException if the load factor is not in (0, 1) or the capacity is negative
+     * @throws NullPointerException     if the codec is null
+     */
+    public OffHeapHashSet(FixedWidthCodec<E> codec, int initialCapacity, double loadFactor) {
+        if (loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("load factor must be greater than 0 and less than 1");
+        }
+
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative");
+        }
+
+        this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+        width = codec.width();
+        stride = width + 1;
+        LOAD_FACTOR = loadFactor;
+
+        allocate(slotsFor(initialCapacity));
+    }
+
+    /**
+     * Returns the native memory currently held by this set's table.
+     *
+     * @return the size of the table, in bytes
+     */
+    public long offHeapBytes() {
+        return closed ? 0 : capacity * stride;
+    }
+
+    /**
+     * Releases this set's native memory. Closing a closed set has no effect.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            free(pages);
+            pages = null;
+            closed = true;
+        }
+    }
+
+    @Override
+    public int size() {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns {@code true} if this set contains an element with the same encoding as the specified one.
+     *
+     * @param o element whose presence in this set is to be tested
+     * @return {@code true} if this set contains the specified element; {@code false} for {@code null} or for an
+     * object the codec cannot encode
+     */
+    @Override
+    public boolean contains(Object o) {
+        ensureOpen();
+
+        ByteBuffer key = encode(o);
+        if (key == null)
+            return false;
+
+        return findSlot(key, hash(key)) >= 0;
+    }
+
+    /**
+     * Returns an iterator over the elements in this set, decoding each one as it is reached.
+     *
+     * @return an iterator over the elements in this set
+     */
+    @Override
+    public Iterator<E> iterator() {
+        ensureOpen();
+
+        return new Iterator<>() {
+            long cursor = nextFull(0);
+            int originalModCount = mod_count;
+
+            public boolean hasNext() {
+                return cursor < capacity;
+            }
+
+            public E next() {
+                ensureOpen();
+                if (originalModCount != mod_count)
+                    throw new ConcurrentModificationException("The Iterator has detected a modification to the Set. This is not allowed.");
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                E returnVal = codec.decode(page(cursor), offset(cursor) + 1);
+                cursor = nextFull(cursor + 1);
+
+                return returnVal;
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] outRay = new Object[size()];
+        int counter = 0;
+
+        for (E el : this) {
+            outRay[counter++] = el;
+        }
+        return outRay;
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return Arrays.asList(toArray()).toArray(a);
+    }
+
+    /**
+     * Adds the specified element to this set if no element with the same encoding is already present.
+     *
+     * @param e element to be added to this set
+     * @return {@code true} if this set did not already contain the specified element
+     * @throws NullPointerException     if the specified element is null
+     * @throws IllegalArgumentException if the codec cannot encode the element
+     */
+    @Override
+    public boolean add(E e) {
+        ensureOpen();
+        Objects.requireNonNull(e, "an off-heap set cannot hold null");
+
+        ByteBuffer key = ByteBuffer.allocate(width);
+        codec.encode(e, key, 0);
+        long hash = hash(key);
+
+        if (findSlot(key, hash) >= 0)
+            return false;
+
+        //Deleted slots lengthen probes just as full ones do, so both count against the load factor
+        if (size + deleted + 1 > capacity * LOAD_FACTOR)
+            refactor();
+
+        long slot = emptySlot(hash);
+        ByteBuffer page = page(slot);
+        int offset = offset(slot);
+
+        page.put(offset, FULL);
+        page.put(offset + 1, key.array(), 0, width);
+
+        size++;
+        mod_count++;
+
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        ensureOpen();
+
+        ByteBuffer key = encode(o);
+        if (key == null)
+            return false;
+
+        long slot = findSlot(key, hash(key));
+        if (slot < 0)
+            return false;
+
+        page(slot).put(offset(slot), DELETED);
+        size--;
+        deleted++;
+        mod_count++;
+
+        return true;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object el : c) {
+            if (!contains(el))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        int oldMod = mod_count;
+
+        for (E el : c) {
+            add(el);
+        }
+        return oldMod != mod_count;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        List<E> doomed = new ArrayList<>();
+
+        for (E el : this) {
+            if (!c.contains(el))
+                doomed.add(el);
+        }
+        return removeAll(doomed);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        int oldSize = size();
+
+        for (Object el : c) {
+            remove(el);
+        }
+        return oldSize != size;
+    }
+
+    /**
+     * Removes all of the elements from this set and shrinks its table back to the default size.
+     */
+    @Override
+    public void clear() {
+        ensureOpen();
+
+        ByteBuffer[] old = pages;
+        allocate(slotsFor(DEFAULT_INT_CAP));
+        free(old);
+
+        size = 0;
+        deleted = 0;
+        mod_count++;
+    }
+
+    /**
+     * Returns the hash code value for this set, the sum of {@link FixedWidthCodec#hash(Object)} over its
+     * elements. This is {@link Set#hashCode()} wherever the codec's hash agrees with the element type's own.
+     *
+     * @return the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        int sum = 0;
+
+        for (E el : this) {
+            sum += codec.hash(el);
+        }
+        return sum;
+    }
+
+    /**
+     * Rehashes every element into a fresh table, doubled if the live elements need it, and releases the old
+     * table. Deleted slots are dropped along the way.
+     */
+    private void refactor() {
+        ByteBuffer[] oldPages = pages;
+        long oldCapacity = capacity;
+        int oldShift = pageShift;
+        long oldMask = pageMask;
+
+        allocate(size + 1 > capacity * LOAD_FACTOR / 2 ? capacity * 2 : capacity);
+        ByteBuffer moving = ByteBuffer.allocate(width);
+
+        for (long slot = 0; slot < oldCapacity; slot++) {
+            ByteBuffer page = oldPages[(int) (slot >>> oldShift)];
+            int offset = (int) (slot & oldMask) * stride;
+
+            if (page.get(offset) != FULL)
+                continue;
+
+            page.get(offset + 1, moving.array(), 0, width);
+            long target = emptySlot(hash(moving));
+            ByteBuffer targetPage = page(target);
+            int targetOffset = offset(target);
+
+            targetPage.put(targetOffset, FULL);
+            targetPage.put(targetOffset + 1, moving.array(), 0, width);
+        }
+
+        deleted = 0;
+        free(oldPages);
+    }
+
+    /**
+     * Allocates a zeroed (all EMPTY) table of the given number of slots, a power of two.
+     */
+    private void allocate(long slots) {
+        long slotsPerPage = Math.min(slots, Long.highestOneBit(MAX_PAGE_BYTES / stride));
+        int pageCount = (int) (slots / slotsPerPage);
+
+        ByteBuffer[] fresh = new ByteBuffer[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            fresh[i] = ByteBuffer.allocateDirect((int) (slotsPerPage * stride));
+        }
+
+        pages = fresh;
+        capacity = slots;
+        pageShift = Long.numberOfTrailingZeros(slotsPerPage);
+        pageMask = slotsPerPage - 1;
+    }
+
+    private long slotsFor(long elements) {
+        long needed = Math.max((long) Math.ceil(elements / LOAD_FACTOR) + 1, 2);
+        return Long.highestOneBit(needed - 1) << 1;
+    }
+
+    private ByteBuffer page(long slot) {
+        return pages[(int) (slot >>> pageShift)];
+    }
+
+    private int offset(long slot) {
+        return (int) (slot & pageMask) * stride;
+    }
+
+    private long nextFull(long from) {
+        while (from < capacity && page(from).get(offset(from)) != FULL) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Probes the table for the element encoded in the given key.
+     *
+     * @return the slot holding the element, or -1 if it is not present
+     */
+    private long findSlot(ByteBuffer key, long hash) {
+        long mask = capacity - 1;
+
+        for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+            ByteBuffer page = page(slot);
+            int offset = offset(slot);
+            byte state = page.get(offset);
+
+            if (state == EMPTY)
+                return -1;
+
+            if (state == FULL && matches(key, page, offset + 1))
+                return slot;
+        }
+    }
+
+    /**
+     * Returns the first empty or deleted slot on the probe sequence of the given hash.
+     */
+    private long emptySlot(long hash) {
+        long mask = capacity - 1;
+        long slot = hash & mask;
+
+        while (page(slot).get(offset(slot)) == FULL) {
+            slot = (slot + 1) & mask;
+        }
+
+        if (page(slot).get(offset(slot)) == DELETED)
+            deleted--;
+        return slot;
+    }
+
+    private boolean matches(ByteBuffer key, ByteBuffer page, int offset) {
+        int i = 0;
+
+        for (; i + Long.BYTES <= width; i += Long.BYTES) {
+            if (page.getLong(offset + i) != key.getLong(i))
+                return false;
+        }
+        for (; i < width; i++) {
+            if (page.get(offset + i) != key.get(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the bytes of an encoded key, a long at a time, finishing with a MurmurHash3 mix so that the
+     * low bits used to pick a slot depend on every input byte.
+     */
+    private long hash(ByteBuffer key) {
+        long h = width;
+        int i = 0;
+
+        for (; i + Long.BYTES <= width; i += Long.BYTES) {
+            h = h * 0x9E3779B97F4A7C15L + key.getLong(i);
+        }
+        for (; i < width; i++) {
+            h = h * 31 + key.get(i);
+        }
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Encodes an arbitrary object into a fresh key buffer, owned by the calling lookup.
+     *
+     * @return the encoded key, or {@code null} if the object is null or cannot be encoded, in which case it
+     * cannot be in this set
+     */
+    private ByteBuffer encode(Object o) {
+        if (o == null)
+            return null;
+
+        ByteBuffer key = ByteBuffer.allocate(width);
+        try {
+            codec.encode((E) o, key, 0);
+            return key;
+        } catch (ClassCastException | IllegalArgumentException unencodable) {
+            return null;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("the set has been closed");
+        }
+    }
+
+    /**
+     * Releases direct buffers now rather than whenever the collector notices them, through
+     * {@code sun.misc.Unsafe.invokeCleaner}. Where that is unavailable the buffers are left to the collector.
+     */
+    private static void free(ByteBuffer[] buffers) {
+        if (buffers == null || CLEANER == null)
+            return;
+
+        for (ByteBuffer buffer : buffers) {
+            try {
+                CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException ignored) {
+                return;
+            }
+        }
+    }
+
+    private static final Object UNSAFE;
+    private static final Method CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method cleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            cleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException unavailable) {
+            unsafe = null;
+            cleaner = null;
+        }
+        UNSAFE = unsafe;
+        CLEANER = cleaner;
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * ReadMostlyHashSet is a thread-safe {@link MyHashSet} for sets that are written rarely and read by many threads.
+ *
+ * <p>Writes take a {@link StampedLock} in write mode. Reads take no lock at all in the common case: they run
+ * against the underlying set under an optimistic stamp from {@link StampedLock#tryOptimisticRead()} and keep
+ * the result only if {@link StampedLock#validate(long)} confirms that no write, {@code refactor()} included,
+ * happened meanwhile. A read that overlaps a write is retried optimistically a few times, and then once more
+ * under the read lock, so readers cannot starve.
+ *
+ * <p>An optimistic read may observe the underlying set half-way through a write and fail in any way while
+ * doing so; such failures are discarded along with the read's result. Iterators walk a snapshot taken the
+ * same way, so they never throw {@link ConcurrentModificationException} and do not block writers.
+ *
+ * @param <E> the type of elements maintained by this set
+ * @see MyHashSet
+ * @see StampedLock
+ */
+public class ReadMostlyHashSet<E> implements Set<E> {
+    //Optimistic attempts made before a read falls back to the read lock
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+
+    private final MyHashSet<E> delegate;
+    private final StampedLock lock = new StampedLock();
+
+    //Default Constructor
+    public ReadMostlyHashSet() {
+        delegate = new MyHashSet<>();
+    }
+
+    //Capacity Constructor
+    public ReadMostlyHashSet(int initialCapacity) {
+        delegate = new MyHashSet<>(initialCapacity);
+    }
+
+    /**
+     * Constructs an empty read-mostly set.
+     *
+     * @param initialCapacity the number of buckets allocated once the set outgrows its small-set array
+     * @param loadFactor      the ratio of size to buckets past which the set is resized
+     * @param strategy        the hash and equality functions to apply to elements
+     * @throws IllegalArgumentException if the load factor is not positive or the capacity is negative
+     * @throws NullPointerException     if the strategy is null
+     */
+    public ReadMostlyHashSet(int initialCapacity, double loadFactor, HashingStrategy<? super E> strategy) {
+        delegate = new MyHashSet<>(initialCapacity, loadFactor, strategy);
+    }
+
+    @Override
+    public int size() {
+        return read(delegate::size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return read(delegate::isEmpty);
+    }
+
+    /**
+     * Returns {@code true} if this set contains the specified element. In the absence of a concurrent write
+     * this takes no lock and performs no atomic read-modify-write.
+     *
+     * @param o element whose presence in this set is to be tested
+     * @return {@code true} if this set contains the specified element
+     */
+    @Override
+    public boolean contains(Object o) {
+        //Written out rather than going through read(), as this is the path the class exists for
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+
+            //A zero stamp means a write is in progress right now
+            if (stamp == 0L)
+                continue;
+
+            try {
+                boolean result = delegate.contains(o);
+                if (lock.validate(stamp))
+                    return result;
+            } catch (RuntimeException tornRead) {
+                if (lock.validate(stamp))
+                    throw tornRead;
+            }
+        }
+
+        long stamp = lock.readLock();
+        try {
+            return delegate.contains(o);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of this set, taken without locking in the common case. Removing through
+     * the iterator removes the element from this set.
+     *
+     * @return an iterator over the elements in this set
+     */
+    @Override
+    public Iterator<E> iterator() {
+        Object[] snapshot = toArray();
+
+        return new Iterator<>() {
+            int cursor = 0;
+
+            public boolean hasNext() {
+                return cursor < snapshot.length;
+            }
+
+            public E next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return (E) snapshot[cursor++];
+            }
+
+            public void remove() {
+                if (cursor == 0)
+                    throw new IllegalStateException();
+                ReadMostlyHashSet.this.remove(snapshot[cursor - 1]);
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        return read(delegate::toArray);
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        //The passed array is only filled by the read that succeeds, so a torn read cannot leave it half written
+        Object[] snapshot = toArray();
+        return Arrays.asList(snapshot).toArray(a);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        return read(() -> delegate.containsAll(c));
+    }
+
+    @Override
+    public boolean add(E e) {
+        long stamp = lock.writeLock();
+        try {
+            return delegate.add(e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        long stamp = lock.writeLock();
+        try {
+            return delegate.remove(o);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        long stamp = lock.writeLock();
+        try {
+            return delegate.addAll(c);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+
+        long stamp = lock.writeLock();
+        try {
+            boolean changed = false;
+            for (Object el : delegate.toArray()) {
+                if (!c.contains(el))
+                    changed |= delegate.remove(el);
+            }
+            return changed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        long stamp = lock.writeLock();
+        try {
+            boolean changed = false;
+            for (Object el : c) {
+                changed |= delegate.remove(el);
+            }
+            return changed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            delegate.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || read(() -> delegate.equals(o));
+    }
+
+    @Override
+    public int hashCode() {
+        return read(delegate::hashCode);
+    }
+
+    /**
+     * Runs a read against the underlying set, optimistically first and then under the read lock.
+     */
+    private <T> T read(Supplier<T> reader) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+
+            if (stamp == 0L)
+                continue;
+
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp))
+                    return result;
+            } catch (RuntimeException tornRead) {
+                //Only a failure seen on a consistent state is real; anything else was caused by the concurrent write
+                if (lock.validate(stamp))
+                    throw tornRead;
+            }
+        }
+
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * RecordingSet wraps a set, typically a {@link MyHashSet} in production, and writes a {@link Trace} of the calls
+ * made on it to a file, for {@link TraceReplay} to replay later against other implementations.
+ *
+ * <p>{@code add}, {@code contains} and {@code remove} are recorded with the key the key mapper gives their
+ * argument; a call whose argument the mapper cannot take, such as one of another type, is passed through
+ * unrecorded. Each iterator or array handed out is recorded as one whole iteration, and bulk operations are
+ * carried out, and recorded, as the individual calls they amount to. {@code size} and {@code isEmpty} are passed
+ * through unrecorded.
+ *
+ * <p>The mapper should give equal elements equal keys and distinct elements distinct keys, for instance an id
+ * or a 64-bit hash. Trace writes are buffered; {@link #close()} flushes them and leaves the wrapped set as is.
+ *
+ * @param <E> the type of elements maintained by this set
+ * @see Trace
+ * @see TraceReplay
+ */
+public class RecordingSet<E> implements Set<E>, AutoCloseable {
+    private final Set<E> delegate;
+    private final ToLongFunction<? super E> keyMapper;
+    private final Trace.Writer trace;
+
+    /**
+     * Starts recording the calls made on a set.
+     *
+     * @param delegate  the set to wrap
+     * @param keyMapper gives the {@code long} key recorded for an element
+     * @param traceFile the file to write the trace to, replacing anything already there
+     * @throws IOException if the trace file cannot be created
+     */
+    public RecordingSet(Set<E> delegate, ToLongFunction<? super E> keyMapper, Path traceFile) throws IOException {
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+        this.keyMapper = Objects.requireNonNull(keyMapper, "key mapper cannot be null");
+        trace = new Trace.Writer(Files.newOutputStream(traceFile));
+    }
+
+    /**
+     * Flushes and closes the trace file.
+     */
+    @Override
+    public void close() {
+        try {
+            trace.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        record(Trace.CONTAINS, o);
+        return delegate.contains(o);
+    }
+
+    @Override
+    public boolean add(E e) {
+        record(Trace.ADD, e);
+        return delegate.add(e);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        record(Trace.REMOVE, o);
+        return delegate.remove(o);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        record(Trace.ITERATE, null);
+        return delegate.iterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        record(Trace.ITERATE, null);
+        return delegate.toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        record(Trace.ITERATE, null);
+        return delegate.toArray(a);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object el : c) {
+            if (!contains(el))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        boolean changed = false;
+
+        for (E el : c) {
+            changed |= add(el);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        List<E> doomed = new ArrayList<>();
+
+        for (E el : this) {
+            if (!c.contains(el))
+                doomed.add(el);
+        }
+        return removeAll(doomed);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean changed = false;
+
+        for (Object el : c) {
+            changed |= remove(el);
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        record(Trace.CLEAR, null);
+        delegate.clear();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || delegate.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    private void record(byte op, Object o) {
+        long key = 0;
+
+        if (Trace.isKeyed(op)) {
+            try {
+                key = keyMapper.applyAsLong((E) o);
+            } catch (ClassCastException | NullPointerException unused) {
+                //Not an element the mapper can key, so not part of the workload being captured
+                return;
+            }
+        }
+
+        try {
+            trace.record(op, key);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
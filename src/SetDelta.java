@@ -0,0 +1,75 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A SetDelta is the net change to a {@link MyHashSet} between two of its versions, as returned by
+ * {@link MyHashSet#deltaSince(int)} and consumed by {@link MyHashSet#applyDelta(SetDelta)}.
+ *
+ * <p>The delta is coalesced: an element added and later removed within the span appears in neither list, and
+ * no element appears in both. If the source set was cleared within the span, {@link #isReset()} is {@code true},
+ * the additions are everything added since the clear, and there are no removals.
+ *
+ * @param <E> the type of elements in the delta
+ * @see MyHashSet#deltaSince(int)
+ */
+public final class SetDelta<E> {
+    private final int fromVersion, toVersion;
+    private final boolean reset;
+    private final List<E> added, removed;
+
+    SetDelta(int fromVersion, int toVersion, boolean reset, List<E> added, List<E> removed) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.reset = reset;
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * @return the version of the source set this delta starts from
+     */
+    public int fromVersion() {
+        return fromVersion;
+    }
+
+    /**
+     * @return the version of the source set this delta brings a follower up to
+     */
+    public int toVersion() {
+        return toVersion;
+    }
+
+    /**
+     * @return {@code true} if a follower must clear itself before applying the additions
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * @return the elements added over the span, unmodifiable
+     */
+    public List<E> added() {
+        return added;
+    }
+
+    /**
+     * @return the elements removed over the span, unmodifiable
+     */
+    public List<E> removed() {
+        return removed;
+    }
+
+    /**
+     * @return {@code true} if applying this delta would change nothing
+     */
+    public boolean isEmpty() {
+        return !reset && added.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "SetDelta[" + fromVersion + " -> " + toVersion + (reset ? ", reset" : "")
+                + ", +" + added.size() + ", -" + removed.size() + "]";
+    }
+}
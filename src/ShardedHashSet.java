@@ -0,0 +1,551 @@
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * ShardedHashSet partitions its elements across a fixed number of independent {@link MyHashSet} shards.
+ *
+ * <p>An element's shard is chosen from the high bits of its (scrambled) hash, so the choice is independent of
+ * the low bits each shard uses to pick a bucket. Every shard has its own lock and resizes on its own, so a
+ * resize only ever copies one shard's worth of elements. Bulk operations ({@code addAll}, {@code containsAll},
+ * {@code removeIf}, {@code retainAll}, {@code removeAll}, {@link #parallelForEach} and the set algebra methods)
+ * run one task per shard on the configured executor.
+ *
+ * <p>Single-element operations are thread-safe. Whole-set views such as {@code size()} and {@code iterator()}
+ * are assembled shard by shard and are therefore only weakly consistent while other threads are writing, as are
+ * {@code equals} and {@code toString}, which come from {@link AbstractSet}.
+ * Callbacks passed to {@code removeIf}, {@code retainAll} and {@link #parallelForEach} are run on a copy of each
+ * shard with no lock held, so they may themselves read or write this set.
+ *
+ * @param <E> the type of elements maintained by this set
+ * @see MyHashSet
+ */
+public class ShardedHashSet<E> extends AbstractSet<E> {
+    //Fibonacci hashing multiplier, which spreads any hash across the high bits used to pick a shard
+    private static final int SCRAMBLE = 0x9E3779B9;
+    private static final int DEFAULT_SHARD_INT_CAP = 16;
+
+    private final MyHashSet<E>[] shards;
+    private final ReentrantLock[] locks;
+    private final int shardShift;
+    private final Executor executor;
+    private final HashingStrategy<? super E> strategy;
+
+    //Default Constructor, one shard per available processor
+    public ShardedHashSet() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    //Shard count Constructor
+    public ShardedHashSet(int shardCount) {
+        this(shardCount, ForkJoinPool.commonPool());
+    }
+
+    //Shard count and Executor Constructor
+    public ShardedHashSet(int shardCount, Executor executor) {
+        this(shardCount, executor, HashingStrategy.defaultStrategy());
+    }
+
+    /**
+     * Constructs an empty sharded set.
+     *
+     * @param shardCount the number of shards; rounded up to a power of two
+     * @param executor   the executor on which bulk operations run their per-shard tasks
+     * @param strategy   the hash and equality functions to apply to elements
+     * @throws IllegalArgumentException if the shard count is not positive
+     * @throws NullPointerException     if the executor or strategy is null
+     */
+    public ShardedHashSet(int shardCount, Executor executor, HashingStrategy<? super E> strategy) {
+        if (shardCount <= 0 || shardCount > 1 << 30) {
+            throw new IllegalArgumentException("shard count must be between 1 and 2^30");
+        }
+
+        this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+        this.strategy = Objects.requireNonNull(strategy, "hashing strategy cannot be null");
+
+        int roundedCount = shardCount == 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        shardShift = 32 - Integer.numberOfTrailingZeros(roundedCount);
+
+        shards = new MyHashSet[roundedCount];
+        locks = new ReentrantLock[roundedCount];
+
+        for (int i = 0; i < roundedCount; i++) {
+            shards[i] = new MyHashSet<>(DEFAULT_SHARD_INT_CAP, strategy);
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the number of shards this set is split into.
+     *
+     * @return the shard count, always a power of two
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the shard the given element belongs to.
+     *
+     * @param o the element, possibly {@code null}
+     * @return the index of the element's shard, between 0 and {@code shardCount() - 1}
+     */
+    public int shardOf(Object o) {
+        //A shift by 32 is a shift by 0 in Java, so the single-shard case cannot go through the shift
+        if (shards.length == 1)
+            return 0;
+
+        int h = (o == null) ? 0 : strategy.computeHashCode((E) o);
+        return (h * SCRAMBLE) >>> shardShift;
+    }
+
+    /**
+     * Returns a copy of one shard's contents, taken under that shard's lock. The copy is independent of this set,
+     * so it may be read at leisure, or handed to another thread, without blocking further writes here.
+     *
+     * @param shard the index of the shard to copy
+     * @return a new set holding the shard's elements
+     * @throws IndexOutOfBoundsException if the shard index is out of range
+     */
+    public MyHashSet<E> shardSnapshot(int shard) {
+        Objects.checkIndex(shard, shards.length);
+
+        MyHashSet<E> copy = new MyHashSet<>(DEFAULT_SHARD_INT_CAP, strategy);
+        locks[shard].lock();
+        try {
+            copy.addAll(shards[shard]);
+        } finally {
+            locks[shard].unlock();
+        }
+        return copy;
+    }
+
+    @Override
+    public int size() {
+        long total = 0;
+
+        for (int i = 0; i < shards.length; i++) {
+            locks[i].lock();
+            try {
+                total += shards[i].size();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        int shard = shardOf(o);
+
+        locks[shard].lock();
+        try {
+            return shards[shard].contains(o);
+        } finally {
+            locks[shard].unlock();
+        }
+    }
+
+    @Override
+    public boolean add(E e) {
+        int shard = shardOf(e);
+
+        locks[shard].lock();
+        try {
+            return shards[shard].add(e);
+        } finally {
+            locks[shard].unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int shard = shardOf(o);
+
+        locks[shard].lock();
+        try {
+            return shards[shard].remove(o);
+        } finally {
+            locks[shard].unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this set. Each shard is copied under its lock when the iterator
+     * reaches it, so the iterator never throws {@link ConcurrentModificationException}, but it may or may not
+     * reflect writes made to shards it has not reached yet.
+     *
+     * @return an iterator over the elements in this set
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            int nextShard = 0;
+            Object[] current = new Object[0];
+            int position = 0;
+
+            public boolean hasNext() {
+                while (position >= current.length && nextShard < shards.length) {
+                    current = snapshotArray(nextShard++);
+                    position = 0;
+                }
+                return position < current.length;
+            }
+
+            public E next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return (E) current[position++];
+            }
+        };
+    }
+
+    private Object[] snapshotArray(int shard) {
+        locks[shard].lock();
+        try {
+            return shards[shard].toArray();
+        } finally {
+            locks[shard].unlock();
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        List<Object> out = new ArrayList<>();
+
+        for (int i = 0; i < shards.length; i++) {
+            out.addAll(Arrays.asList(snapshotArray(i)));
+        }
+        return out.toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        List<Object> out = new ArrayList<>();
+
+        for (int i = 0; i < shards.length; i++) {
+            out.addAll(Arrays.asList(snapshotArray(i)));
+        }
+        return out.toArray(a);
+    }
+
+    /**
+     * Returns {@code true} if this set contains all of the elements of the specified collection. The
+     * collection is partitioned by shard and each shard checks its part in its own task.
+     *
+     * @param c collection to be checked for containment in this set
+     * @return {@code true} if this set contains all of the elements of the specified collection
+     */
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        List<Object>[] parts = partition(c);
+
+        return allShards(i -> shards[i].containsAll(parts[i]), parts, true);
+    }
+
+    /**
+     * Adds all of the elements in the specified collection to this set. The collection is partitioned by
+     * shard and each shard inserts its part in its own task.
+     *
+     * @param c collection containing elements to be added to this set
+     * @return {@code true} if this set changed as a result of the call
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        List<Object>[] parts = partition(c);
+
+        return anyShard(i -> shards[i].addAll((List<E>) parts[i]), parts, true);
+    }
+
+    /**
+     * Removes all elements matching the predicate, one task per shard. Each task tests a copy of its shard with
+     * no lock held, then removes the matches under the shard's lock. The predicate may be called concurrently
+     * from several threads, and may itself use this set.
+     *
+     * @param filter a predicate which returns {@code true} for elements to be removed
+     * @return {@code true} if any elements were removed
+     */
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+
+        return anyShard(i -> {
+            List<E> doomed = new ArrayList<>();
+            for (Object el : snapshotArray(i)) {
+                if (filter.test((E) el))
+                    doomed.add((E) el);
+            }
+
+            if (doomed.isEmpty())
+                return false;
+
+            locks[i].lock();
+            try {
+                boolean changed = false;
+                for (E el : doomed) {
+                    changed |= shards[i].remove(el);
+                }
+                return changed;
+            } finally {
+                locks[i].unlock();
+            }
+        }, null, false);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        //removeIf() holds no lock while testing, so even another sharded set may be probed directly
+        Objects.requireNonNull(c);
+        return removeIf(el -> !c.contains(el));
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        List<Object>[] parts = partition(c);
+
+        return anyShard(i -> {
+            boolean changed = false;
+            for (Object el : parts[i]) {
+                changed |= shards[i].remove(el);
+            }
+            return changed;
+        }, parts, true);
+    }
+
+    /**
+     * Performs the given action on every element, one task per shard. Each task walks a copy of its shard taken
+     * under the shard's lock, and runs the action with no lock held, so the action may itself use this set. The
+     * action may be called concurrently from several threads.
+     *
+     * @param action the action to be performed on each element
+     */
+    public void parallelForEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+
+        allShards(i -> {
+            for (Object el : snapshotArray(i)) {
+                action.accept((E) el);
+            }
+            return true;
+        }, null, false);
+    }
+
+    /**
+     * Returns a new set holding every element in this set or the other, built one task per shard.
+     *
+     * @param other the set to unite with this one
+     * @return the union of the two sets
+     */
+    public ShardedHashSet<E> union(Set<? extends E> other) {
+        ShardedHashSet<E> result = emptyCopy();
+        List<Object>[] parts = partitionFor(other);
+
+        allShards(i -> {
+            result.shards[i].addAll(shards[i]);
+            //An unsharded set's elements may miss some shards entirely
+            if (parts[i] != null)
+                result.shards[i].addAll((List<E>) parts[i]);
+            return true;
+        }, null, true);
+        return result;
+    }
+
+    /**
+     * Returns a new set holding the elements of this set that are also in the other, built one task per shard.
+     *
+     * @param other the set to intersect with this one
+     * @return the intersection of the two sets
+     */
+    public ShardedHashSet<E> intersection(Set<?> other) {
+        ShardedHashSet<E> result = emptyCopy();
+        List<Object>[] parts = other instanceof ShardedHashSet ? partitionFor(other) : null;
+
+        allShards(i -> {
+            Set<?> lookup = lookupFor(other, parts, i);
+            for (E el : shards[i]) {
+                if (lookup.contains(el))
+                    result.shards[i].add(el);
+            }
+            return true;
+        }, null, true);
+        return result;
+    }
+
+    /**
+     * Returns a new set holding the elements of this set that are not in the other, built one task per shard.
+     *
+     * @param other the set whose elements are to be excluded
+     * @return the difference of this set and the other
+     */
+    public ShardedHashSet<E> difference(Set<?> other) {
+        ShardedHashSet<E> result = emptyCopy();
+        List<Object>[] parts = other instanceof ShardedHashSet ? partitionFor(other) : null;
+
+        allShards(i -> {
+            Set<?> lookup = lookupFor(other, parts, i);
+            for (E el : shards[i]) {
+                if (!lookup.contains(el))
+                    result.shards[i].add(el);
+            }
+            return true;
+        }, null, true);
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < shards.length; i++) {
+            locks[i].lock();
+            try {
+                shards[i].clear();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the hash code value for this set, the sum of its shards' {@link MyHashSet#hashCode()}s, each read in
+     * constant time under the shard's lock.
+     *
+     * @return the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        int sum = 0;
+
+        for (int i = 0; i < shards.length; i++) {
+            locks[i].lock();
+            try {
+                sum += shards[i].hashCode();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the set a shard task should probe for membership in {@code other}. Another sharded set is never
+     * probed directly, as that would take its locks while holding ours; its elements are copied out beforehand
+     * and each task probes a private set built from the part that falls in its shard.
+     */
+    private Set<?> lookupFor(Set<?> other, List<Object>[] parts, int shard) {
+        if (parts == null)
+            return other;
+
+        MyHashSet<Object> lookup = new MyHashSet<>(DEFAULT_SHARD_INT_CAP, (HashingStrategy<Object>) strategy);
+        if (parts[shard] != null)
+            lookup.addAll(parts[shard]);
+        return lookup;
+    }
+
+    private ShardedHashSet<E> emptyCopy() {
+        return new ShardedHashSet<>(shards.length, executor, strategy);
+    }
+
+    /**
+     * Splits a collection into one list per shard. A sharded set with the same layout is split by copying
+     * each of its shards under that shard's lock, which never holds two locks at once.
+     */
+    private List<Object>[] partitionFor(Collection<?> c) {
+        if (c instanceof ShardedHashSet && ((ShardedHashSet<?>) c).shards.length == shards.length
+                && ((ShardedHashSet<?>) c).strategy == strategy) {
+            ShardedHashSet<?> other = (ShardedHashSet<?>) c;
+            List<Object>[] parts = new List[shards.length];
+
+            for (int i = 0; i < shards.length; i++) {
+                parts[i] = Arrays.asList(other.snapshotArray(i));
+            }
+            return parts;
+        }
+        return partition(c);
+    }
+
+    private List<Object>[] partition(Collection<?> c) {
+        List<Object>[] parts = new List[shards.length];
+
+        for (Object el : c) {
+            int shard = shardOf(el);
+            if (parts[shard] == null)
+                parts[shard] = new ArrayList<>();
+            parts[shard].add(el);
+        }
+        return parts;
+    }
+
+    /**
+     * Runs the task on every shard, under that shard's lock if asked, and reports whether all of them returned
+     * true. Shards with no part to work on are skipped when parts are given.
+     */
+    private boolean allShards(IntPredicate task, List<Object>[] parts, boolean locked) {
+        boolean[] results = runShards(task, parts, locked);
+
+        for (int i = 0; i < results.length; i++) {
+            if ((parts == null || parts[i] != null) && !results[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs the task on every shard, under that shard's lock if asked, and reports whether any of them returned true.
+     */
+    private boolean anyShard(IntPredicate task, List<Object>[] parts, boolean locked) {
+        for (boolean result : runShards(task, parts, locked)) {
+            if (result)
+                return true;
+        }
+        return false;
+    }
+
+    //Tasks run unlocked must take the shard's lock themselves around any access to it
+    private boolean[] runShards(IntPredicate task, List<Object>[] parts, boolean locked) {
+        boolean[] results = new boolean[shards.length];
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        for (int i = 0; i < shards.length; i++) {
+            if (parts != null && parts[i] == null)
+                continue;
+
+            int shard = i;
+            pending.add(CompletableFuture.runAsync(() -> {
+                if (!locked) {
+                    results[shard] = task.test(shard);
+                    return;
+                }
+
+                locks[shard].lock();
+                try {
+                    results[shard] = task.test(shard);
+                } finally {
+                    locks[shard].unlock();
+                }
+            }, executor));
+        }
+
+        try {
+            //join() also publishes each task's write to 'results' to this thread
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            if (ex.getCause() instanceof Error)
+                throw (Error) ex.getCause();
+            throw ex;
+        }
+        return results;
+    }
+}
@@ -0,0 +1,65 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A SpillCodec writes elements to and reads them back from the run files of a {@link SpillingHashSet}.
+ *
+ * <p>Unlike a {@link FixedWidthCodec}, encodings may be of any length. {@code read} must return an element equal
+ * to the one that was written.
+ *
+ * @param <E> the type of elements encoded
+ * @see SpillingHashSet
+ */
+public interface SpillCodec<E> {
+
+    /**
+     * {@code String}s, written in modified UTF-8 as by {@link DataOutput#writeUTF}. That encoding has a two byte
+     * length, so a string whose encoding exceeds 65535 bytes cannot be written: {@code writeUTF} throws
+     * {@link java.io.UTFDataFormatException}, and the spill that meets such a string fails.
+     */
+    SpillCodec<String> STRINGS = new SpillCodec<>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    /**
+     * {@code Long}s, written in 8 bytes.
+     */
+    SpillCodec<Long> LONGS = new SpillCodec<>() {
+        @Override
+        public void write(Long value, DataOutput out) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    /**
+     * Writes an element.
+     *
+     * @param value the element to write, never {@code null}
+     * @param out   the output to write to
+     * @throws IOException if the output cannot be written
+     */
+    void write(E value, DataOutput out) throws IOException;
+
+    /**
+     * Reads back an element written by {@link #write}.
+     *
+     * @param in the input to read from
+     * @return the element read
+     * @throws IOException if the input cannot be read
+     */
+    E read(DataInput in) throws IOException;
+}
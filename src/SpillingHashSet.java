@@ -0,0 +1,826 @@
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * SpillingHashSet is a set for deduplication jobs that may see more distinct elements than fit on the heap.
+ *
+ * <p>Elements are first held in an in-memory {@link MyHashSet}, the hot table. When the hot table outgrows the
+ * configured memory budget its contents are spilled: split by hash into a fixed number of partitions, and
+ * written as one run file per partition, sorted by hash, into a private directory. The hot table then starts
+ * over empty. Each run keeps a Bloom filter and a sparse index of hashes to file offsets in memory, so an
+ * element that was never spilled is almost always ruled out without touching the disk, and one that was is
+ * found by reading a single block of a few runs.
+ *
+ * <p>Runs are merged size-tiered. Once a partition holds four runs of about the same size, those four alone are
+ * merged into one run of the next size up, so a record is rewritten about once per tier: a number of times that
+ * grows with the logarithm of the elements spilled, not with the number of spills.
+ *
+ * <p>Removing a spilled element records it in an in-memory set of removals rather than rewriting runs. The
+ * removals count against the memory budget. Merges drop removed elements from the runs they rewrite, and should
+ * the removals come to take half the budget, every partition holding one is merged to drop them all.
+ *
+ * <p>A spill publishes its runs only once every one of them is complete. If writing any of them fails, the files
+ * written are deleted and the hot table is left as it was, less the element whose addition set off the spill.
+ * The set does not permit {@code null}. {@link #close()} deletes the run files; a closed set throws
+ * {@link IllegalStateException} on use. I/O failures are reported as {@link UncheckedIOException}. Equality and
+ * the hash code are those of {@link AbstractSet}, reading every run.
+ *
+ * @param <E> the type of elements maintained by this set
+ * @see SpillCodec
+ * @see MyHashSet#estimatedRetainedBytes(ToLongFunction)
+ */
+public class SpillingHashSet<E> extends AbstractSet<E> implements AutoCloseable {
+    private static final int DEFAULT_PARTITIONS = 16;
+    //Records between entries of a run's sparse index
+    private static final int INDEX_STRIDE = 64;
+    //Runs whose record counts share a power of TIER_FANOUT form a tier, and a tier that gathers TIER_FANOUT runs
+    //is merged into one run of the next tier up. A power of two.
+    private static final int TIER_FANOUT = 4;
+    //Bloom filter sizing: about 1% false positives
+    private static final int BLOOM_BITS_PER_ELEMENT = 10, BLOOM_HASHES = 7;
+    //Structural bytes per hot element assumed until the hot table has been measured
+    private static final long INITIAL_OVERHEAD_GUESS = 64;
+
+    private final SpillCodec<E> codec;
+    private final ToLongFunction<? super E> elementSizer;
+    private final long memoryBudget;
+    private final Path directory;
+    private final List<Run>[] runs;
+    private final int partitionShift;
+
+    private MyHashSet<E> hot = new MyHashSet<>();
+    //Spilled elements that have since been removed
+    private MyHashSet<E> removed = new MyHashSet<>();
+    private long hotElementBytes = 0, removedElementBytes = 0, overheadPerElement = INITIAL_OVERHEAD_GUESS;
+    private long recordsWritten = 0;
+    private int size = 0, mod_count = 0, runsWritten = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructs an empty spilling set with the default number of partitions.
+     *
+     * @param codec        writes and reads elements in run files
+     * @param elementSizer reports the heap an element retains, in bytes
+     * @param memoryBudget heap bytes the hot table and its elements may take before being spilled
+     * @param spillParent  directory in which this set creates its own directory of run files
+     * @throws IOException if the run directory cannot be created
+     */
+    public SpillingHashSet(SpillCodec<E> codec, ToLongFunction<? super E> elementSizer, long memoryBudget, Path spillParent) throws IOException {
+        this(codec, elementSizer, memoryBudget, spillParent, DEFAULT_PARTITIONS);
+    }
+
+    /**
+     * Constructs an empty spilling set.
+     *
+     * @param codec          writes and reads elements in run files
+     * @param elementSizer   reports the heap an element retains, in bytes
+     * @param memoryBudget   heap bytes the hot table and its elements may take before being spilled
+     * @param spillParent    directory in which this set creates its own directory of run files
+     * @param partitionCount number of partitions spilled elements are split into; rounded up to a power of two
+     * @throws IOException              if the run directory cannot be created
+     * @throws IllegalArgumentException if the budget or partition count is not positive
+     */
+    public SpillingHashSet(SpillCodec<E> codec, ToLongFunction<? super E> elementSizer, long memoryBudget, Path spillParent, int partitionCount) throws IOException {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("memory budget must be greater than 0");
+        }
+
+        if (partitionCount <= 0 || partitionCount > 1 << 16) {
+            throw new IllegalArgumentException("partition count must be between 1 and 2^16");
+        }
+
+        this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+        this.elementSizer = Objects.requireNonNull(elementSizer, "element sizer cannot be null");
+        this.memoryBudget = memoryBudget;
+        directory = Files.createTempDirectory(Objects.requireNonNull(spillParent), "spill");
+
+        int rounded = partitionCount == 1 ? 1 : Integer.highestOneBit(partitionCount - 1) << 1;
+        partitionShift = 32 - Integer.numberOfTrailingZeros(rounded);
+        runs = new List[rounded];
+        for (int i = 0; i < rounded; i++) {
+            runs[i] = new ArrayList<>();
+        }
+    }
+
+    /**
+     * @return the number of elements currently held in memory rather than on disk
+     */
+    public int hotSize() {
+        ensureOpen();
+        return hot.size();
+    }
+
+    /**
+     * @return the number of run files currently on disk
+     */
+    public int runCount() {
+        ensureOpen();
+
+        int count = 0;
+        for (List<Run> partition : runs) {
+            count += partition.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of records written to run files so far, by spills and merges together. Divided by the
+     * number of elements spilled, this is the write amplification of merging.
+     *
+     * @return the number of records written
+     */
+    public long recordsWritten() {
+        ensureOpen();
+        return recordsWritten;
+    }
+
+    /**
+     * Deletes the run files and their directory. Closing a closed set has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        try {
+            deleteRuns();
+            Files.deleteIfExists(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public int size() {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        ensureOpen();
+
+        if (o == null)
+            return false;
+
+        return hot.contains(o) || (!removed.contains(o) && onDisk(o));
+    }
+
+    /**
+     * Adds the specified element if it is not already present, in memory or on disk. May spill the hot table.
+     *
+     * @param e element to be added to this set
+     * @return {@code true} if this set did not already contain the specified element
+     * @throws NullPointerException if the specified element is null
+     */
+    @Override
+    public boolean add(E e) {
+        ensureOpen();
+        Objects.requireNonNull(e, "a spilling set cannot hold null");
+
+        if (hot.contains(e))
+            return false;
+
+        //A spilled element that was removed comes back simply by forgetting the removal
+        if (removed.remove(e)) {
+            removedElementBytes -= elementSizer.applyAsLong(e);
+            size++;
+            mod_count++;
+            return true;
+        }
+
+        if (onDisk(e))
+            return false;
+
+        hot.add(e);
+        hotElementBytes += elementSizer.applyAsLong(e);
+        size++;
+        mod_count++;
+
+        if (heldBytes() > memoryBudget) {
+            try {
+                spillIfOverBudget();
+            } catch (RuntimeException ex) {
+                //A spill that fails publishes nothing and leaves the hot table as it was, so the new element is
+                //taken back out; a merge that fails after a spill has already put it on disk
+                if (hot.remove(e)) {
+                    hotElementBytes -= elementSizer.applyAsLong(e);
+                    size--;
+                }
+                throw ex;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        ensureOpen();
+
+        if (o == null)
+            return false;
+
+        if (hot.remove(o)) {
+            hotElementBytes -= elementSizer.applyAsLong((E) o);
+        } else if (!removed.contains(o) && onDisk(o)) {
+            removed.add((E) o);
+            removedElementBytes += elementSizer.applyAsLong((E) o);
+        } else {
+            return false;
+        }
+
+        size--;
+        mod_count++;
+
+        if (heldBytes() > memoryBudget)
+            spillIfOverBudget();
+
+        return true;
+    }
+
+    /**
+     * Returns an iterator over the hot elements and then over every run file, skipping removed elements. Runs are
+     * read one sparse-index block at a time, and no file is left open between calls, so an iterator that is
+     * abandoned part way holds nothing that needs closing.
+     *
+     * @return an iterator over the elements in this set
+     */
+    @Override
+    public Iterator<E> iterator() {
+        ensureOpen();
+
+        List<Run> allRuns = new ArrayList<>();
+        for (List<Run> partition : runs) {
+            allRuns.addAll(partition);
+        }
+
+        return new Iterator<>() {
+            final Iterator<E> hotIterator = hot.iterator();
+            final Iterator<Run> runIterator = allRuns.iterator();
+            final int originalModCount = mod_count;
+            //The decoded records of the current block, at most INDEX_STRIDE of them
+            final ArrayDeque<E> block = new ArrayDeque<>();
+            Run run;
+            int nextBlock = 0;
+            E subsequent = advance();
+
+            public boolean hasNext() {
+                return subsequent != null;
+            }
+
+            public E next() {
+                if (originalModCount != mod_count)
+                    throw new ConcurrentModificationException("The Iterator has detected a modification to the Set. This is not allowed.");
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                E returnVal = subsequent;
+                subsequent = advance();
+                return returnVal;
+            }
+
+            private E advance() {
+                if (hotIterator.hasNext())
+                    return hotIterator.next();
+
+                try {
+                    while (true) {
+                        while (block.isEmpty()) {
+                            if (run == null || nextBlock == run.sparseOffsets.length) {
+                                if (!runIterator.hasNext())
+                                    return null;
+
+                                run = runIterator.next();
+                                nextBlock = 0;
+                            } else {
+                                run.readBlock(nextBlock++, block);
+                            }
+                        }
+
+                        E el = block.poll();
+                        if (!removed.contains(el))
+                            return el;
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] outRay = new Object[size()];
+        int counter = 0;
+
+        for (E el : this) {
+            outRay[counter++] = el;
+        }
+        return outRay;
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return Arrays.asList(toArray()).toArray(a);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object el : c) {
+            if (!contains(el))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        int oldSize = size();
+
+        for (E el : c) {
+            add(el);
+        }
+        return oldSize != size;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        List<E> doomed = new ArrayList<>();
+
+        for (E el : this) {
+            if (!c.contains(el))
+                doomed.add(el);
+        }
+        return removeAll(doomed);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        int oldSize = size();
+
+        for (Object el : c) {
+            remove(el);
+        }
+        return oldSize != size;
+    }
+
+    /**
+     * Removes every element, in memory and on disk.
+     */
+    @Override
+    public void clear() {
+        ensureOpen();
+
+        try {
+            deleteRuns();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        hot = new MyHashSet<>();
+        removed = new MyHashSet<>();
+        hotElementBytes = 0;
+        removedElementBytes = 0;
+        size = 0;
+        mod_count++;
+    }
+
+    /**
+     * Estimates the heap held by the hot table and the removals, from their element sizes and the structural
+     * overhead per element last measured.
+     */
+    private long heldBytes() {
+        return hotElementBytes + removedElementBytes + overheadPerElement * (hot.size() + removed.size());
+    }
+
+    /**
+     * Measures the hot table and the removals exactly, and spills if they really are over budget. Otherwise the
+     * per-element overhead used by the cheap check in {@link #heldBytes()} is corrected from the measurement.
+     */
+    private void spillIfOverBudget() {
+        long hotStructural = hot.estimatedRetainedBytes(), removedStructural = removed.estimatedRetainedBytes();
+        overheadPerElement = (hotStructural + removedStructural) / Math.max(hot.size() + removed.size(), 1);
+
+        if (hotElementBytes + removedElementBytes + hotStructural + removedStructural <= memoryBudget)
+            return;
+
+        try {
+            spill();
+
+            //Spilling only empties the hot table; removals are dropped by rewriting the runs that hold them
+            if (removedElementBytes + removedStructural > memoryBudget / 2)
+                purgeRemoved();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Writes the hot table to one new run per partition and empties it, then merges any tier the new runs fill.
+     * The runs are published only once all of them are written; if one fails, those written are deleted.
+     */
+    private void spill() throws IOException {
+        List<Object>[] byPartition = new List[runs.length];
+
+        for (E el : hot) {
+            int p = partitionOf(mix(Objects.hashCode(el)));
+            if (byPartition[p] == null)
+                byPartition[p] = new ArrayList<>();
+            byPartition[p].add(el);
+        }
+
+        //Partition to its new run, in partition order
+        Map<Integer, Run> fresh = new TreeMap<>();
+        try {
+            for (int p = 0; p < runs.length; p++) {
+                if (byPartition[p] == null)
+                    continue;
+
+                List<E> part = (List<E>) (List<?>) byPartition[p];
+                part.sort(Comparator.comparingInt(el -> mix(Objects.hashCode(el))));
+                fresh.put(p, writeRun(part));
+            }
+        } catch (IOException | RuntimeException ex) {
+            for (Run run : fresh.values()) {
+                deleteAfterFailure(run.file, ex);
+            }
+            throw ex;
+        }
+
+        for (Map.Entry<Integer, Run> published : fresh.entrySet()) {
+            runs[published.getKey()].add(published.getValue());
+        }
+        hot = new MyHashSet<>();
+        hotElementBytes = 0;
+
+        for (int p : fresh.keySet()) {
+            mergeTiers(p);
+        }
+    }
+
+    /**
+     * Writes elements, already sorted by mixed hash, as records of {@code [hash][length][encoding]}. A run that
+     * cannot be written in full is deleted.
+     */
+    private Run writeRun(List<E> sorted) throws IOException {
+        Run run = new Run(directory.resolve("run-" + runsWritten++), sorted.size());
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        DataOutputStream encoder = new DataOutputStream(encoded);
+
+        try (CountingOutput out = new CountingOutput(Files.newOutputStream(run.file))) {
+            for (E el : sorted) {
+                encoded.reset();
+                codec.write(el, encoder);
+                encoder.flush();
+
+                run.record(mix(Objects.hashCode(el)), out.written);
+                out.data.writeInt(mix(Objects.hashCode(el)));
+                out.data.writeInt(encoded.size());
+                encoded.writeTo(out.data);
+            }
+        } catch (IOException | RuntimeException ex) {
+            deleteAfterFailure(run.file, ex);
+            throw ex;
+        }
+        return run;
+    }
+
+    /**
+     * Merges runs of a partition tier by tier, for as long as some tier holds TIER_FANOUT runs. Runs of other sizes
+     * are left alone, so a large run is only rewritten once enough runs of its own size have gathered.
+     */
+    private void mergeTiers(int partition) throws IOException {
+        while (true) {
+            Map<Integer, List<Run>> tiers = new HashMap<>();
+            List<Run> full = null;
+
+            for (Run run : runs[partition]) {
+                List<Run> tier = tiers.computeIfAbsent(tierOf(run.count), t -> new ArrayList<>());
+                tier.add(run);
+                if (tier.size() == TIER_FANOUT) {
+                    full = tier;
+                    break;
+                }
+            }
+
+            if (full == null)
+                return;
+            mergeRuns(partition, full);
+        }
+    }
+
+    private static int tierOf(int count) {
+        return (31 - Integer.numberOfLeadingZeros(Math.max(count, 1))) / Integer.numberOfTrailingZeros(TIER_FANOUT);
+    }
+
+    /**
+     * Merges every run of each partition holding a removed element, which drops every removal from disk and so
+     * from memory.
+     */
+    private void purgeRemoved() throws IOException {
+        boolean[] holding = new boolean[runs.length];
+        for (E el : removed) {
+            holding[partitionOf(mix(Objects.hashCode(el)))] = true;
+        }
+
+        for (int p = 0; p < runs.length; p++) {
+            if (holding[p] && !runs[p].isEmpty())
+                mergeRuns(p, new ArrayList<>(runs[p]));
+        }
+    }
+
+    /**
+     * Merges the given runs of a partition into a single run, by hash, copying the encoded records as they are.
+     * Removed elements are dropped, and forgotten by the set of removals. The merged run replaces the given ones
+     * only once it is complete; if it is left empty it is not kept at all.
+     */
+    private void mergeRuns(int partition, List<Run> merging) throws IOException {
+        int total = 0;
+        for (Run run : merging) {
+            total += run.count;
+        }
+
+        Run merged = new Run(directory.resolve("run-" + runsWritten++), total);
+        List<DataInputStream> inputs = new ArrayList<>();
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Comparator.comparingInt(head -> head[0]));
+        int[] remaining = new int[merging.size()];
+        List<E> dropped = new ArrayList<>();
+
+        try (CountingOutput out = new CountingOutput(Files.newOutputStream(merged.file))) {
+            for (int i = 0; i < merging.size(); i++) {
+                inputs.add(new DataInputStream(new BufferedInputStream(Files.newInputStream(merging.get(i).file))));
+                remaining[i] = merging.get(i).count;
+                if (remaining[i] > 0)
+                    heads.add(new int[]{inputs.get(i).readInt(), i});
+            }
+
+            while (!heads.isEmpty()) {
+                int[] head = heads.poll();
+                DataInputStream in = inputs.get(head[1]);
+                byte[] record = new byte[in.readInt()];
+                in.readFully(record);
+
+                //Records are only decoded when there are removals they might be
+                E el = removed.isEmpty() ? null : codec.read(new DataInputStream(new ByteArrayInputStream(record)));
+                if (el != null && removed.contains(el)) {
+                    dropped.add(el);
+                } else {
+                    merged.record(head[0], out.written);
+                    out.data.writeInt(head[0]);
+                    out.data.writeInt(record.length);
+                    out.data.write(record);
+                }
+
+                if (--remaining[head[1]] > 0)
+                    heads.add(new int[]{in.readInt(), head[1]});
+            }
+        } catch (IOException | RuntimeException ex) {
+            deleteAfterFailure(merged.file, ex);
+            throw ex;
+        } finally {
+            for (DataInputStream in : inputs) {
+                in.close();
+            }
+        }
+
+        merged.seal();
+        runs[partition].removeAll(merging);
+        if (merged.count > 0)
+            runs[partition].add(merged);
+
+        for (E el : dropped) {
+            removed.remove(el);
+            removedElementBytes -= elementSizer.applyAsLong(el);
+        }
+
+        if (merged.count == 0)
+            Files.deleteIfExists(merged.file);
+        for (Run run : merging) {
+            Files.deleteIfExists(run.file);
+        }
+    }
+
+    /**
+     * Looks for an element in the runs of its partition, newest first, consulting each run's Bloom filter before
+     * reading any of it.
+     */
+    private boolean onDisk(Object o) {
+        int hash = mix(Objects.hashCode(o));
+        List<Run> partition = runs[partitionOf(hash)];
+
+        try {
+            for (int i = partition.size() - 1; i >= 0; i--) {
+                Run run = partition.get(i);
+                if (run.mightContain(hash) && run.scanFor(hash, o))
+                    return true;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return false;
+    }
+
+    private int partitionOf(int mixedHash) {
+        //A shift by 32 is a shift by 0 in Java, so the single-partition case cannot go through the shift
+        return runs.length == 1 ? 0 : mixedHash >>> partitionShift;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Deletes a file left by an operation that is failing, attaching any trouble deleting it to the failure.
+     */
+    private static void deleteAfterFailure(Path file, Exception failure) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    private void deleteRuns() throws IOException {
+        for (List<Run> partition : runs) {
+            for (Run run : partition) {
+                Files.deleteIfExists(run.file);
+            }
+            partition.clear();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("the set has been closed");
+        }
+    }
+
+    /**
+     * One sorted run file, with the Bloom filter and sparse index built while it was written.
+     */
+    private final class Run {
+        final Path file;
+        final long[] bloom;
+        //Sized for the records expected, and trimmed by seal() if fewer are written
+        int count;
+        int[] sparseHashes;
+        long[] sparseOffsets;
+        int recorded = 0;
+
+        Run(Path file, int count) {
+            this.file = file;
+            this.count = count;
+            bloom = new long[Math.max(1, (int) (((long) count * BLOOM_BITS_PER_ELEMENT + 63) / 64))];
+            sparseHashes = new int[(count + INDEX_STRIDE - 1) / INDEX_STRIDE];
+            sparseOffsets = new long[sparseHashes.length];
+        }
+
+        /**
+         * Notes a record as it is written: into the Bloom filter, and into the sparse index every INDEX_STRIDE records.
+         */
+        void record(int hash, long offset) {
+            if (recorded % INDEX_STRIDE == 0) {
+                sparseHashes[recorded / INDEX_STRIDE] = hash;
+                sparseOffsets[recorded / INDEX_STRIDE] = offset;
+            }
+            recorded++;
+            recordsWritten++;
+
+            long bits = (long) bloom.length * 64;
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                long bit = Math.floorMod(bloomHash(hash, i), bits);
+                bloom[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        /**
+         * Trims the run to the records actually written, which a merge that drops removed elements leaves short of
+         * the count it was sized for.
+         */
+        void seal() {
+            count = recorded;
+            sparseHashes = Arrays.copyOf(sparseHashes, (count + INDEX_STRIDE - 1) / INDEX_STRIDE);
+            sparseOffsets = Arrays.copyOf(sparseOffsets, sparseHashes.length);
+        }
+
+        boolean mightContain(int hash) {
+            long bits = (long) bloom.length * 64;
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                long bit = Math.floorMod(bloomHash(hash, i), bits);
+                if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0)
+                    return false;
+            }
+            return true;
+        }
+
+        //Double hashing: the i-th probe is h1 + i * h2, with h2 derived from a second mix of the hash
+        private long bloomHash(int hash, int i) {
+            long h2 = (hash * 0x85ebca6bL) ^ (hash >>> 13) | 1;
+            return hash + i * h2;
+        }
+
+        /**
+         * Decodes the records of one block of the sparse index into the given collection, closing the file before
+         * returning.
+         */
+        void readBlock(int block, Collection<E> into) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                channel.position(sparseOffsets[block]);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+
+                int end = Math.min(count, (block + 1) * INDEX_STRIDE);
+                for (int i = block * INDEX_STRIDE; i < end; i++) {
+                    in.readInt();
+                    in.readInt();
+                    into.add(codec.read(in));
+                }
+            }
+        }
+
+        /**
+         * Reads the run from the last indexed record strictly below the hash, which is where any record with that
+         * hash can first appear, until the hashes pass it.
+         */
+        boolean scanFor(int hash, Object o) throws IOException {
+            int block = 0;
+            int lo = 0, hi = sparseHashes.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sparseHashes[mid] < hash) {
+                    block = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                channel.position(sparseOffsets[block]);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+
+                for (int i = block * INDEX_STRIDE; i < count; i++) {
+                    int recordHash = in.readInt();
+                    int length = in.readInt();
+
+                    if (recordHash > hash)
+                        return false;
+
+                    if (recordHash == hash) {
+                        if (Objects.equals(codec.read(in), o))
+                            return true;
+                    } else {
+                        in.skipNBytes(length);
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A data output that keeps track of how many bytes have gone through it, for the sparse index offsets.
+     */
+    private static final class CountingOutput implements Closeable {
+        final DataOutputStream data;
+        long written = 0;
+
+        CountingOutput(OutputStream out) {
+            //The count sits above the buffer, so it includes bytes not yet flushed to the file
+            data = new DataOutputStream(new FilterOutputStream(new BufferedOutputStream(out)) {
+                @Override
+                public void write(int b) throws IOException {
+                    this.out.write(b);
+                    written++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    this.out.write(b, off, len);
+                    written += len;
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            data.close();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * SyntheticTraces generates {@link Trace}s with well known key distributions and operation mixes, as baselines to
+ * set recorded production traces against. Every generator is deterministic for a given seed.
+ *
+ * <p>Keys are scrambled by an odd multiplier, so that the hottest keys of a skewed trace, or the consecutive keys
+ * of a churning one, are not also consecutive integers.
+ *
+ * @see TraceReplay
+ */
+public final class SyntheticTraces {
+    private static final long SCRAMBLE = 0x9E3779B97F4A7C15L;
+
+    private SyntheticTraces() {
+    }
+
+    /**
+     * Generates a trace whose keys are drawn uniformly from a key space.
+     *
+     * @param operations     the number of operations
+     * @param keySpace       the number of distinct keys
+     * @param addFraction    the fraction of operations that are adds
+     * @param removeFraction the fraction of operations that are removes; the rest are lookups
+     * @param seed           the random seed
+     * @return the trace
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public static Trace uniform(int operations, int keySpace, double addFraction, double removeFraction, long seed) {
+        checkMix(operations, keySpace, addFraction, removeFraction);
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] ops = new byte[operations];
+        long[] keys = new long[operations];
+
+        for (int i = 0; i < operations; i++) {
+            ops[i] = pickOp(random, addFraction, removeFraction);
+            keys[i] = random.nextInt(keySpace) * SCRAMBLE;
+        }
+        return new Trace(ops, keys, operations);
+    }
+
+    /**
+     * Generates a trace whose keys follow a Zipfian distribution: the key of rank {@code r} is drawn with
+     * probability proportional to {@code 1 / r^exponent}. An exponent near 1 gives the heavy skew typical of
+     * caches and request logs.
+     *
+     * @param operations     the number of operations
+     * @param keySpace       the number of distinct keys
+     * @param exponent       the skew; 0 is uniform
+     * @param addFraction    the fraction of operations that are adds
+     * @param removeFraction the fraction of operations that are removes; the rest are lookups
+     * @param seed           the random seed
+     * @return the trace
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public static Trace zipfian(int operations, int keySpace, double exponent, double addFraction, double removeFraction, long seed) {
+        checkMix(operations, keySpace, addFraction, removeFraction);
+        if (exponent < 0) {
+            throw new IllegalArgumentException("exponent cannot be negative");
+        }
+
+        //Cumulative distribution over ranks, searched by inversion
+        double[] cumulative = new double[keySpace];
+        double total = 0;
+        for (int r = 0; r < keySpace; r++) {
+            total += 1 / Math.pow(r + 1, exponent);
+            cumulative[r] = total;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] ops = new byte[operations];
+        long[] keys = new long[operations];
+
+        for (int i = 0; i < operations; i++) {
+            ops[i] = pickOp(random, addFraction, removeFraction);
+
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            rank = rank >= 0 ? rank : Math.min(-rank - 1, keySpace - 1);
+            keys[i] = rank * SCRAMBLE;
+        }
+        return new Trace(ops, keys, operations);
+    }
+
+    /**
+     * Generates a churn-heavy trace: a sliding window of live keys, where every step adds a new key, removes the
+     * key that falls out of the window and looks up a random live key. After the window fills, the set's size
+     * stays constant while every element is eventually replaced.
+     *
+     * @param operations the number of operations
+     * @param liveKeys   the size of the window of live keys
+     * @param seed       the random seed
+     * @return the trace
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public static Trace churn(int operations, int liveKeys, long seed) {
+        if (operations < 0 || liveKeys <= 0) {
+            throw new IllegalArgumentException("operations cannot be negative and live keys must be greater than 0");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] ops = new byte[operations];
+        long[] keys = new long[operations];
+        long next = 0;
+
+        for (int i = 0; i < operations; i++) {
+            int step = i % 3;
+
+            if (step == 0) {
+                ops[i] = Trace.ADD;
+                keys[i] = next++ * SCRAMBLE;
+            } else if (step == 1 && next > liveKeys) {
+                ops[i] = Trace.REMOVE;
+                keys[i] = (next - liveKeys - 1) * SCRAMBLE;
+            } else {
+                long oldest = Math.max(0, next - liveKeys);
+                ops[i] = Trace.CONTAINS;
+                keys[i] = (oldest + random.nextLong(next - oldest)) * SCRAMBLE;
+            }
+        }
+        return new Trace(ops, keys, operations);
+    }
+
+    private static byte pickOp(SplittableRandom random, double addFraction, double removeFraction) {
+        double roll = random.nextDouble();
+        return roll < addFraction ? Trace.ADD : roll < addFraction + removeFraction ? Trace.REMOVE : Trace.CONTAINS;
+    }
+
+    private static void checkMix(int operations, int keySpace, double addFraction, double removeFraction) {
+        if (operations < 0 || keySpace <= 0) {
+            throw new IllegalArgumentException("operations cannot be negative and key space must be greater than 0");
+        }
+
+        if (addFraction < 0 || removeFraction < 0 || addFraction + removeFraction > 1) {
+            throw new IllegalArgumentException("operation fractions must be non-negative and sum to at most 1");
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A Trace is a recorded sequence of set operations, each an operation code and, for the keyed operations, a
+ * {@code long} key. Traces are written by a {@link RecordingSet} or generated by {@link SyntheticTraces}, and
+ * replayed by {@link TraceReplay}.
+ *
+ * <p>On disk a trace is a four byte magic number followed by one record per operation: the operation code in a
+ * byte and, for keyed operations, the difference from the previous key, zigzag encoded as a variable length
+ * integer. Runs of nearby keys therefore cost two or three bytes per operation.
+ *
+ * @see RecordingSet
+ * @see TraceReplay
+ */
+public final class Trace {
+    public static final byte ADD = 0, CONTAINS = 1, REMOVE = 2, ITERATE = 3, CLEAR = 4;
+    private static final int MAGIC = 0x4d485354;
+
+    private final byte[] ops;
+    private final long[] keys;
+    private final int size;
+
+    Trace(byte[] ops, long[] keys, int size) {
+        this.ops = ops;
+        this.keys = keys;
+        this.size = size;
+    }
+
+    /**
+     * Reads a whole trace into memory.
+     *
+     * @param path the trace file
+     * @return the trace
+     * @throws IOException if the file cannot be read or is not a trace
+     */
+    public static Trace read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a trace");
+            }
+
+            byte[] ops = new byte[1024];
+            long[] keys = new long[1024];
+            int size = 0;
+            long previous = 0;
+
+            for (int op = in.read(); op != -1; op = in.read()) {
+                if (op > CLEAR) {
+                    throw new IOException("unknown operation " + op + " in " + path);
+                }
+
+                if (size == ops.length) {
+                    ops = Arrays.copyOf(ops, size * 2);
+                    keys = Arrays.copyOf(keys, size * 2);
+                }
+
+                ops[size] = (byte) op;
+                if (isKeyed((byte) op)) {
+                    previous += readZigZag(in);
+                    keys[size] = previous;
+                }
+                size++;
+            }
+            return new Trace(ops, keys, size);
+        }
+    }
+
+    /**
+     * Writes this trace to a file, replacing anything already there.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        try (Writer out = new Writer(Files.newOutputStream(path))) {
+            for (int i = 0; i < size; i++) {
+                out.record(ops[i], keys[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of operations in this trace
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i the position of an operation in the trace
+     * @return its operation code, one of {@link #ADD}, {@link #CONTAINS}, {@link #REMOVE}, {@link #ITERATE} or
+     * {@link #CLEAR}
+     */
+    public byte op(int i) {
+        Objects.checkIndex(i, size);
+        return ops[i];
+    }
+
+    /**
+     * @param i the position of an operation in the trace
+     * @return its key, or 0 for an operation that takes none
+     */
+    public long key(int i) {
+        Objects.checkIndex(i, size);
+        return keys[i];
+    }
+
+    /**
+     * @param op an operation code
+     * @return the number of operations in this trace with that code
+     */
+    public int count(byte op) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (ops[i] == op)
+                count++;
+        }
+        return count;
+    }
+
+    static boolean isKeyed(byte op) {
+        return op == ADD || op == CONTAINS || op == REMOVE;
+    }
+
+    private static long readZigZag(DataInput in) throws IOException {
+        long raw = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            raw |= (long) (b & 0x7f) << shift;
+            if (b >= 0)
+                break;
+        }
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    @Override
+    public String toString() {
+        return "Trace[" + size + " operations: " + count(ADD) + " add, " + count(CONTAINS) + " contains, "
+                + count(REMOVE) + " remove, " + count(ITERATE) + " iterate, " + count(CLEAR) + " clear]";
+    }
+
+    /**
+     * Streams operations to a trace file as they happen.
+     */
+    static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private long previous = 0;
+
+        Writer(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            this.out.writeInt(MAGIC);
+        }
+
+        void record(byte op, long key) throws IOException {
+            out.writeByte(op);
+            if (!isKeyed(op))
+                return;
+
+            long delta = key - previous;
+            previous = key;
+
+            long zigZag = (delta << 1) ^ (delta >> 63);
+            while ((zigZag & ~0x7fL) != 0) {
+                out.writeByte((int) (zigZag & 0x7f) | 0x80);
+                zigZag >>>= 7;
+            }
+            out.writeByte((int) zigZag);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
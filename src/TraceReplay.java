@@ -0,0 +1,209 @@
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * TraceReplay runs a recorded {@link Trace} against any {@link Set} implementation and reports how it fared:
+ * throughput, the latency of individual operations and the bytes allocated while replaying.
+ *
+ * <p>Elements are made from the trace's keys by a key factory before timing starts, so that their construction
+ * is neither timed nor counted as allocation; every operation gets its own element object, as calls arriving
+ * from elsewhere in a program would. Each operation is timed separately with {@link System#nanoTime()}, whose own
+ * cost, typically a few tens of nanoseconds, is included in every figure; results are for comparing sets against
+ * one another rather than for quoting on their own. An
+ * {@code ITERATE} operation is one full walk of the set. Allocation is read from the JVM's per-thread counter
+ * where it offers one.
+ *
+ * @see Trace
+ * @see RecordingSet
+ * @see SyntheticTraces
+ */
+public final class TraceReplay {
+    //Folds in the results of operations so that the JIT cannot discard them
+    private static volatile long sink;
+
+    private TraceReplay() {
+    }
+
+    /**
+     * Replays a trace of {@code Long} keys against fresh sets, after the given number of untimed warm-up runs.
+     *
+     * @param trace      the trace to replay
+     * @param setFactory makes a fresh empty set for each run
+     * @param warmupRuns the number of untimed runs made first, to let the JIT compile the set's code
+     * @return the measurements of the final run
+     */
+    public static Result replay(Trace trace, Supplier<? extends Set<Long>> setFactory, int warmupRuns) {
+        return replay(trace, setFactory, Long::valueOf, warmupRuns);
+    }
+
+    /**
+     * Replays a trace against fresh sets, after the given number of untimed warm-up runs.
+     *
+     * @param trace      the trace to replay
+     * @param setFactory makes a fresh empty set for each run
+     * @param keyFactory makes the element for a key
+     * @param warmupRuns the number of untimed runs made first, to let the JIT compile the set's code
+     * @param <E>        the type of elements
+     * @return the measurements of the final run
+     * @throws IllegalArgumentException if the number of warm-up runs is negative
+     */
+    public static <E> Result replay(Trace trace, Supplier<? extends Set<E>> setFactory, LongFunction<? extends E> keyFactory, int warmupRuns) {
+        if (warmupRuns < 0) {
+            throw new IllegalArgumentException("warm-up runs cannot be negative");
+        }
+
+        Object[] elements = elementsOf(trace, keyFactory);
+
+        for (int i = 0; i < warmupRuns; i++) {
+            run(trace, elements, setFactory.get());
+        }
+        return run(trace, elements, setFactory.get());
+    }
+
+    /**
+     * Replays a trace once against the given set, which is left in the state the trace puts it in.
+     *
+     * @param trace      the trace to replay
+     * @param set        the set to replay against
+     * @param keyFactory makes the element for a key
+     * @param <E>        the type of elements
+     * @return the measurements of the run
+     */
+    public static <E> Result replay(Trace trace, Set<E> set, LongFunction<? extends E> keyFactory) {
+        return run(trace, elementsOf(trace, keyFactory), Objects.requireNonNull(set));
+    }
+
+    private static Object[] elementsOf(Trace trace, LongFunction<?> keyFactory) {
+        Object[] elements = new Object[trace.size()];
+
+        for (int i = 0; i < elements.length; i++) {
+            if (Trace.isKeyed(trace.op(i)))
+                elements[i] = keyFactory.apply(trace.key(i));
+        }
+        return elements;
+    }
+
+    private static <E> Result run(Trace trace, Object[] elements, Set<E> set) {
+        LatencyHistogram latencies = new LatencyHistogram();
+        long local = 0, busyNanos = 0;
+        long allocatedBefore = allocatedBytes();
+
+        for (int i = 0; i < elements.length; i++) {
+            long start = System.nanoTime();
+
+            byte op = trace.op(i);
+            if (op == Trace.ADD) {
+                local += set.add((E) elements[i]) ? 1 : 0;
+            } else if (op == Trace.CONTAINS) {
+                local += set.contains(elements[i]) ? 1 : 0;
+            } else if (op == Trace.REMOVE) {
+                local += set.remove(elements[i]) ? 1 : 0;
+            } else if (op == Trace.ITERATE) {
+                for (E el : set) {
+                    local += el == null ? 0 : 1;
+                }
+            } else {
+                set.clear();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            busyNanos += elapsed;
+            latencies.record(elapsed);
+        }
+
+        long allocatedAfter = allocatedBytes();
+        sink += local;
+
+        long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+        return new Result(set.getClass().getSimpleName(), elements.length, busyNanos, allocated, latencies);
+    }
+
+    //Bytes allocated so far by this thread, or -1 if the JVM does not count them
+    private static long allocatedBytes() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+            return -1;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+            return -1;
+
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * The measurements of one replay.
+     */
+    public static final class Result {
+        private final String setName;
+        private final int operations;
+        private final long elapsedNanos, allocatedBytes;
+        private final LatencyHistogram latencies;
+
+        Result(String setName, int operations, long elapsedNanos, long allocatedBytes, LatencyHistogram latencies) {
+            this.setName = setName;
+            this.operations = operations;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.latencies = latencies;
+        }
+
+        /**
+         * @return the simple class name of the set replayed against
+         */
+        public String setName() {
+            return setName;
+        }
+
+        /**
+         * @return the number of operations replayed
+         */
+        public int operations() {
+            return operations;
+        }
+
+        /**
+         * @return the total time spent inside the set's operations, in nanoseconds
+         */
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return operations per second of time spent inside the set
+         */
+        public double throughput() {
+            return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @return the latencies of the individual operations, in nanoseconds
+         */
+        public LatencyHistogram latencies() {
+            return latencies;
+        }
+
+        /**
+         * @return the bytes allocated while replaying, or -1 if the JVM does not count them
+         */
+        public long allocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * @return the bytes allocated per operation, or -1 if the JVM does not count them
+         */
+        public double allocatedBytesPerOperation() {
+            return allocatedBytes < 0 ? -1 : operations == 0 ? 0 : (double) allocatedBytes / operations;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d ops in %.1f ms, %.2f Mops/s, latency ns %s, %s",
+                    setName, operations, elapsedNanos / 1e6, throughput() / 1e6, latencies,
+                    allocatedBytes < 0 ? "allocation unknown" : String.format("%.1f B/op", allocatedBytesPerOperation()));
+        }
+    }
+}
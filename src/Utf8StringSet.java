@@ -0,0 +1,695 @@
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Utf8StringSet is a set of strings that stores each string as UTF-8 bytes packed into large shared byte arenas.
+ *
+ * <p>A stored string costs its UTF-8 bytes plus an arena location, a length and a cached hash held in primitive
+ * arrays, and a slot in an open-addressed {@code int} index. There is no {@code String}, no {@code byte[]} and no
+ * bucket list per element, which for short keys is well under half of what a {@link MyHashSet} of
+ * {@code String} retains. Strings are only materialised when iterated or fetched with {@link #get(int)}.
+ *
+ * <p>Lookups accept any {@link CharSequence}, which is encoded on the fly as it is hashed and compared, and raw
+ * UTF-8 slices through {@link #containsUtf8}; neither creates a {@code String}. Malformed surrogates are encoded
+ * as {@code '?'}, as {@link String#getBytes(java.nio.charset.Charset)} does. Raw slices that are not well-formed
+ * UTF-8 are decoded and re-encoded first, as {@code new String(bytes, UTF_8).getBytes(UTF_8)} would do, so that
+ * each string has exactly one encoding in the set.
+ *
+ * <p>Lookups keep no state in the set, so any number of threads may read it at once as long as none is writing
+ * to it. Writes need outside locking, against readers as well as other writers.
+ *
+ * <p>Every distinct string is given an id by {@link #intern(CharSequence)}, so the set doubles as an interning
+ * pool. Removing a string retires its id, and its bytes stay in the arena for the time being. Once retired ids
+ * outnumber live ones, the next new string compacts the set: live strings are copied into fresh arenas and
+ * renumbered densely, in their old order. Ids are therefore stable only between compactions, and a retired id
+ * is never handed out again before one. The set does not permit {@code null}. Equality and the hash code are
+ * those of {@link AbstractSet}.
+ *
+ * @see MyHashSet
+ */
+public class Utf8StringSet extends AbstractSet<String> {
+    private static final int DEFAULT_INT_CAP = 16;
+    private static final double LOAD_FACTOR = .75;
+    //Values held by the index table besides (id + 1)
+    private static final int EMPTY = 0, DELETED = -1;
+    //Arenas start small, so that small sets stay small, and double up to this size
+    private static final int FIRST_ARENA_BYTES = 256, MAX_ARENA_BYTES = 1 << 20;
+
+    private byte[][] arenas;
+    private int arenaCount, arenaFill;
+
+    //Per id: arena number in the high half and offset in the low half; UTF-8 length, or -1 once removed; hash
+    private long[] locations;
+    private int[] lengths;
+    private int[] hashes;
+    private int[] index;
+    private int size = 0, ids = 0, deleted = 0, mod_count = 0;
+
+    //Default Constructor
+    public Utf8StringSet() {
+        this(DEFAULT_INT_CAP);
+    }
+
+    /**
+     * Constructs an empty set.
+     *
+     * @param initialCapacity the number of strings the set can hold before its index first resizes
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public Utf8StringSet(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative");
+        }
+
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    /**
+     * Adds the given string to the set if absent, and returns its id either way.
+     *
+     * @param s the string to intern
+     * @return the id of the string, which stays the same until the string is removed or the set is compacted
+     * @throws NullPointerException if the string is null
+     */
+    public int intern(CharSequence s) {
+        int hash = hash(Objects.requireNonNull(s));
+        int slot = findSlot(s, hash);
+
+        if (slot >= 0)
+            return index[slot] - 1;
+
+        //Compacting moves the arenas, so it has to happen before the new string's bytes are written
+        ensureIdCapacity();
+        int length = utf8Length(s);
+        int offset = reserve(length);
+
+        byte[] arena = arenas[arenaCount - 1];
+        Utf8Cursor cursor = new Utf8Cursor(s);
+        for (int i = 0; i < length; i++) {
+            arena[offset + i] = (byte) cursor.next();
+        }
+
+        return insert(hash, arenaCount - 1, offset, length);
+    }
+
+    /**
+     * Adds the string encoded by the given UTF-8 slice to the set if absent, and returns its id either way.
+     *
+     * @param utf8   the bytes holding the encoded string
+     * @param offset the position of the string's first byte
+     * @param length the number of bytes in the string
+     * @return the id of the string
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public int intern(byte[] utf8, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, utf8.length);
+
+        if (!isWellFormed(utf8, offset, length))
+            return intern(new String(utf8, offset, length, StandardCharsets.UTF_8));
+
+        int hash = hash(utf8, offset, length);
+        int slot = findSlot(utf8, offset, length, hash);
+
+        if (slot >= 0)
+            return index[slot] - 1;
+
+        ensureIdCapacity();
+        int arenaOffset = reserve(length);
+        System.arraycopy(utf8, offset, arenas[arenaCount - 1], arenaOffset, length);
+
+        return insert(hash, arenaCount - 1, arenaOffset, length);
+    }
+
+    /**
+     * Returns the id of the given string, or -1 if it is not in the set.
+     *
+     * @param s the string to look up
+     * @return the id of the string, or -1
+     */
+    public int idOf(CharSequence s) {
+        if (s == null)
+            return -1;
+
+        int slot = findSlot(s, hash(s));
+        return slot < 0 ? -1 : index[slot] - 1;
+    }
+
+    /**
+     * Returns the string with the given id, decoded into a new {@code String}.
+     *
+     * @param id an id returned by {@link #intern} or {@link #idOf}
+     * @return the string with that id
+     * @throws NoSuchElementException if no string in the set has that id
+     */
+    public String get(int id) {
+        if (id < 0 || id >= ids || lengths[id] < 0) {
+            throw new NoSuchElementException("no string with id " + id);
+        }
+        return decode(id);
+    }
+
+    /**
+     * Returns {@code true} if the set holds the string encoded by the given UTF-8 slice.
+     *
+     * @param utf8   the bytes holding the encoded string
+     * @param offset the position of the string's first byte
+     * @param length the number of bytes in the string
+     * @return {@code true} if the string is in the set
+     * @throws IndexOutOfBoundsException if the slice is not within the array
+     */
+    public boolean containsUtf8(byte[] utf8, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, utf8.length);
+
+        if (!isWellFormed(utf8, offset, length))
+            return contains(new String(utf8, offset, length, StandardCharsets.UTF_8));
+
+        return findSlot(utf8, offset, length, hash(utf8, offset, length)) >= 0;
+    }
+
+    /**
+     * Returns an estimate of the heap this set retains, arenas included.
+     *
+     * @return the estimated retained size of this set, in bytes
+     */
+    public long estimatedRetainedBytes() {
+        long bytes = MemoryFootprint.instanceBytes(Utf8StringSet.class)
+                + MemoryFootprint.referenceArrayBytes(arenas.length)
+                + primitiveArrayBytes(locations.length, Long.BYTES)
+                + primitiveArrayBytes(lengths.length, Integer.BYTES)
+                + primitiveArrayBytes(hashes.length, Integer.BYTES)
+                + primitiveArrayBytes(index.length, Integer.BYTES);
+
+        for (int i = 0; i < arenaCount; i++) {
+            bytes += primitiveArrayBytes(arenas[i].length, 1);
+        }
+        return bytes;
+    }
+
+    private static long primitiveArrayBytes(int length, int elementBytes) {
+        return MemoryFootprint.align(MemoryFootprint.ARRAY_HEADER_BYTES + (long) length * elementBytes);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this set contains the given character sequence, compared by content.
+     *
+     * @param o element whose presence in this set is to be tested
+     * @return {@code true} if {@code o} is a {@link CharSequence} held by this set
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof CharSequence && findSlot((CharSequence) o, hash((CharSequence) o)) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            int nextId = skipRemoved(0);
+            int originalModCount = mod_count;
+
+            public boolean hasNext() {
+                return nextId < ids;
+            }
+
+            public String next() {
+                if (originalModCount != mod_count)
+                    throw new ConcurrentModificationException("The Iterator has detected a modification to the Set. This is not allowed.");
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                String returnVal = decode(nextId);
+                nextId = skipRemoved(nextId + 1);
+
+                return returnVal;
+            }
+        };
+    }
+
+    private int skipRemoved(int from) {
+        while (from < ids && lengths[from] < 0) {
+            from++;
+        }
+        return from;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] outRay = new Object[size];
+        int counter = 0;
+
+        for (String el : this) {
+            outRay[counter++] = el;
+        }
+        return outRay;
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return Arrays.asList(toArray()).toArray(a);
+    }
+
+    /**
+     * Adds the specified string to this set if it is not already present. The string's characters are copied
+     * into the arena; the {@code String} itself is not retained.
+     *
+     * @param s string to be added to this set
+     * @return {@code true} if this set did not already contain the string
+     * @throws NullPointerException if the string is null
+     */
+    @Override
+    public boolean add(String s) {
+        int oldSize = size;
+        intern(s);
+        return size != oldSize;
+    }
+
+    /**
+     * Removes the given character sequence from the set. Its id is retired and its bytes are not reclaimed until
+     * the set is next compacted or cleared.
+     *
+     * @param o object to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof CharSequence))
+            return false;
+
+        int slot = findSlot((CharSequence) o, hash((CharSequence) o));
+        if (slot < 0)
+            return false;
+
+        lengths[index[slot] - 1] = -1;
+        index[slot] = DELETED;
+        deleted++;
+
+        size--;
+        mod_count++;
+
+        return true;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object el : c) {
+            if (!contains(el))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> c) {
+        int oldSize = size;
+
+        for (String el : c) {
+            intern(el);
+        }
+        return oldSize != size;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        int oldSize = size;
+
+        for (int id = 0; id < ids; id++) {
+            if (lengths[id] >= 0) {
+                String el = decode(id);
+                if (!c.contains(el))
+                    remove(el);
+            }
+        }
+        return oldSize != size;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        int oldSize = size;
+
+        for (Object el : c) {
+            remove(el);
+        }
+        return oldSize != size;
+    }
+
+    /**
+     * Removes every string and releases the arenas. Ids handed out before the call are no longer valid.
+     */
+    @Override
+    public void clear() {
+        allocate(DEFAULT_INT_CAP);
+        size = 0;
+        ids = 0;
+        deleted = 0;
+        mod_count++;
+    }
+
+    private void allocate(int capacity) {
+        arenas = new byte[4][];
+        arenaCount = 0;
+        arenaFill = 0;
+
+        locations = new long[capacity];
+        lengths = new int[capacity];
+        hashes = new int[capacity];
+        index = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * Makes room for a string of the given number of bytes at the end of the last arena, starting a new arena if
+     * the last one is too full. Strings never span two arenas.
+     *
+     * @return the offset of the reserved bytes in the last arena
+     */
+    private int reserve(int length) {
+        if (arenaCount == 0 || arenas[arenaCount - 1].length - arenaFill < length) {
+            int nextSize = arenaCount == 0 ? FIRST_ARENA_BYTES : Math.min(arenas[arenaCount - 1].length * 2, MAX_ARENA_BYTES);
+
+            if (arenaCount == arenas.length)
+                arenas = Arrays.copyOf(arenas, arenaCount * 2);
+
+            arenas[arenaCount++] = new byte[Math.max(nextSize, length)];
+            arenaFill = 0;
+        }
+
+        int offset = arenaFill;
+        arenaFill += length;
+        return offset;
+    }
+
+    /**
+     * Records a string already written to an arena under the next id, and indexes it.
+     */
+    private int insert(int hash, int arena, int offset, int length) {
+        if (size + deleted + 1 > index.length * LOAD_FACTOR)
+            refactor();
+
+        int id = ids++;
+        locations[id] = ((long) arena << 32) | offset;
+        lengths[id] = length;
+        hashes[id] = hash;
+        index[emptySlot(hash)] = id + 1;
+
+        size++;
+        mod_count++;
+
+        return id;
+    }
+
+    /**
+     * Makes room in the per-id arrays for one more id. If retired ids outnumber live ones the set is compacted
+     * rather than grown, so that add/remove churn cannot grow the arrays and arenas without bound.
+     */
+    private void ensureIdCapacity() {
+        if (ids < locations.length)
+            return;
+
+        if (ids - size > size) {
+            compact();
+        } else {
+            locations = Arrays.copyOf(locations, ids * 2);
+            lengths = Arrays.copyOf(lengths, ids * 2);
+            hashes = Arrays.copyOf(hashes, ids * 2);
+        }
+    }
+
+    /**
+     * Copies the live strings into fresh arenas under dense new ids, keeping their order, and rebuilds the index.
+     * Retired ids and their bytes are dropped, and ids handed out before the call are no longer valid.
+     */
+    private void compact() {
+        byte[][] oldArenas = arenas;
+        long[] oldLocations = locations;
+        int[] oldLengths = lengths;
+        int[] oldHashes = hashes;
+        int oldIds = ids;
+
+        arenas = new byte[4][];
+        arenaCount = 0;
+        arenaFill = 0;
+        locations = new long[oldLocations.length];
+        lengths = new int[oldLengths.length];
+        hashes = new int[oldHashes.length];
+        ids = 0;
+
+        for (int id = 0; id < oldIds; id++) {
+            int length = oldLengths[id];
+            if (length < 0)
+                continue;
+
+            int offset = reserve(length);
+            System.arraycopy(oldArenas[(int) (oldLocations[id] >>> 32)], (int) oldLocations[id], arenas[arenaCount - 1], offset, length);
+
+            locations[ids] = ((long) (arenaCount - 1) << 32) | offset;
+            lengths[ids] = length;
+            hashes[ids] = oldHashes[id];
+            ids++;
+        }
+
+        refactor();
+        mod_count++;
+    }
+
+    /**
+     * Rebuilds the index, doubled if the live strings need it, dropping DELETED markers. Ids and arenas are left
+     * as they are.
+     */
+    private void refactor() {
+        int tableSize = index.length;
+        if (size + 1 > tableSize * LOAD_FACTOR / 2)
+            tableSize *= 2;
+
+        index = new int[tableSize];
+        deleted = 0;
+
+        for (int id = 0; id < ids; id++) {
+            if (lengths[id] >= 0)
+                index[emptySlot(hashes[id])] = id + 1;
+        }
+    }
+
+    private int tableSizeFor(int capacity) {
+        int needed = (int) Math.ceil(capacity / LOAD_FACTOR) + 1;
+        return Integer.highestOneBit(Math.max(needed - 1, 1)) << 1;
+    }
+
+    private int findSlot(CharSequence s, int hash) {
+        int mask = index.length - 1;
+
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int ref = index[slot];
+
+            if (ref == EMPTY)
+                return -1;
+
+            if (ref != DELETED && hashes[ref - 1] == hash && matches(ref - 1, s))
+                return slot;
+        }
+    }
+
+    private int findSlot(byte[] utf8, int offset, int length, int hash) {
+        int mask = index.length - 1;
+
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int ref = index[slot];
+
+            if (ref == EMPTY)
+                return -1;
+
+            if (ref != DELETED && hashes[ref - 1] == hash && lengths[ref - 1] == length
+                    && Arrays.equals(arenaOf(ref - 1), offsetOf(ref - 1), offsetOf(ref - 1) + length, utf8, offset, offset + length))
+                return slot;
+        }
+    }
+
+    private int emptySlot(int hash) {
+        int mask = index.length - 1;
+        int slot = mix(hash) & mask;
+
+        while (index[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean matches(int id, CharSequence s) {
+        byte[] arena = arenaOf(id);
+        int offset = offsetOf(id), length = lengths[id];
+
+        Utf8Cursor cursor = new Utf8Cursor(s);
+        for (int i = 0; i < length; i++) {
+            if (cursor.next() != (arena[offset + i] & 0xff))
+                return false;
+        }
+        return cursor.next() < 0;
+    }
+
+    private String decode(int id) {
+        return new String(arenaOf(id), offsetOf(id), lengths[id], StandardCharsets.UTF_8);
+    }
+
+    private byte[] arenaOf(int id) {
+        return arenas[(int) (locations[id] >>> 32)];
+    }
+
+    private int offsetOf(int id) {
+        return (int) locations[id];
+    }
+
+    private int utf8Length(CharSequence s) {
+        int length = 0;
+
+        Utf8Cursor cursor = new Utf8Cursor(s);
+        while (cursor.next() >= 0) {
+            length++;
+        }
+        return length;
+    }
+
+    //FNV-1a over the UTF-8 bytes, so a CharSequence and its encoded bytes hash alike
+    private int hash(CharSequence s) {
+        int h = 0x811c9dc5;
+
+        Utf8Cursor cursor = new Utf8Cursor(s);
+        for (int b = cursor.next(); b >= 0; b = cursor.next()) {
+            h = (h ^ b) * 0x01000193;
+        }
+        return h;
+    }
+
+    private static int hash(byte[] utf8, int offset, int length) {
+        int h = 0x811c9dc5;
+
+        for (int i = offset; i < offset + length; i++) {
+            h = (h ^ (utf8[i] & 0xff)) * 0x01000193;
+        }
+        return h;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns {@code true} if the slice is UTF-8 exactly as Java's encoder writes it: every sequence complete and
+     * in shortest form, with no surrogate code points and nothing above U+10FFFF.
+     */
+    private static boolean isWellFormed(byte[] utf8, int offset, int length) {
+        int end = offset + length;
+
+        for (int i = offset; i < end; ) {
+            int b = utf8[i] & 0xff;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+
+            int count, codePoint, smallest;
+            if (b >= 0xC2 && b <= 0xDF) {
+                count = 1;
+                codePoint = b & 0x1f;
+                smallest = 0x80;
+            } else if ((b & 0xF0) == 0xE0) {
+                count = 2;
+                codePoint = b & 0x0f;
+                smallest = 0x800;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                count = 3;
+                codePoint = b & 0x07;
+                smallest = 0x10000;
+            } else {
+                return false;
+            }
+
+            if (end - i <= count)
+                return false;
+
+            for (int k = 1; k <= count; k++) {
+                int continuation = utf8[i + k] & 0xff;
+                if ((continuation & 0xC0) != 0x80)
+                    return false;
+                codePoint = codePoint << 6 | continuation & 0x3f;
+            }
+
+            if (codePoint < smallest || codePoint > Character.MAX_CODE_POINT
+                    || codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)
+                return false;
+
+            i += count + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Produces the UTF-8 encoding of a CharSequence one byte at a time. Each lookup makes its own, so that
+     * concurrent readers do not share one.
+     */
+    private static final class Utf8Cursor {
+        private final CharSequence source;
+        private int position = 0;
+        //Continuation bytes still to be returned for the current code point, lowest byte first
+        private int pending, pendingCount = 0;
+
+        Utf8Cursor(CharSequence s) {
+            source = s;
+        }
+
+        /**
+         * @return the next byte, from 0 to 255, or -1 at the end of the sequence
+         */
+        int next() {
+            if (pendingCount > 0) {
+                int b = pending & 0xff;
+                pending >>>= 8;
+                pendingCount--;
+                return b;
+            }
+
+            if (position >= source.length())
+                return -1;
+
+            char c = source.charAt(position++);
+            if (c < 0x80)
+                return c;
+
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && position < source.length() && Character.isLowSurrogate(source.charAt(position))) {
+                codePoint = Character.toCodePoint(c, source.charAt(position++));
+            } else if (Character.isSurrogate(c)) {
+                return '?';
+            }
+
+            if (codePoint < 0x800) {
+                queue(codePoint, 1);
+                return 0xC0 | codePoint >>> 6;
+            }
+            if (codePoint < 0x10000) {
+                queue(codePoint, 2);
+                return 0xE0 | codePoint >>> 12;
+            }
+            queue(codePoint, 3);
+            return 0xF0 | codePoint >>> 18;
+        }
+
+        private void queue(int codePoint, int count) {
+            pending = 0;
+            for (int i = 0; i < count; i++) {
+                //Continuation bytes carry six bits each, the most significant group going out first
+                pending |= (0x80 | (codePoint >>> (6 * (count - 1 - i))) & 0x3f) << (8 * i);
+            }
+            pendingCount = count;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    LatencyHistogram histogram;
+
+
+    @BeforeEach
+    void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    void valueAtPercentile_Normal() {
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(100000, histogram.count());
+        assertEquals(100000, histogram.max());
+        assertEquals(50000.5, histogram.mean());
+
+        //Within the histogram's 1 / 32 bucket width of the true value
+        for (double p : new double[]{1, 50, 90, 99, 99.9}) {
+            long truth = (long) (p * 1000);
+            long reported = histogram.valueAtPercentile(p);
+            assertTrue(reported >= truth && reported <= truth * 33 / 32 + 1, p + "th percentile is off: " + reported);
+        }
+        assertEquals(100000, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    void valueAtPercentile_Edge_smallAndHugeValues() {
+        assertEquals(0, histogram.valueAtPercentile(50), "An empty histogram is reporting values");
+
+        histogram.record(-5);
+        histogram.record(7);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.valueAtPercentile(10), "Small values are not being counted exactly");
+        assertEquals(7, histogram.valueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    void add_Normal() {
+        LatencyHistogram other = new LatencyHistogram();
+        histogram.record(10);
+        other.record(1000);
+        other.record(2000);
+
+        histogram.add(other);
+        assertEquals(3, histogram.count());
+        assertEquals(2000, histogram.max());
+        assertEquals(10, histogram.valueAtPercentile(33));
+    }
+
+    @Test
+    void valueAtPercentile_Exception() {
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(100.5));
+    }
+}
@@ -0,0 +1,185 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyHashMultisetTest {
+
+    MyHashMultiset<String> myMultiset;
+
+
+    @BeforeEach
+    void setUp() {
+        myMultiset = new MyHashMultiset<>();
+    }
+
+    @Test
+    void add_Normal() {
+        assertEquals(0, myMultiset.add("Poe"));
+        assertEquals(1, myMultiset.add("Poe"));
+        assertEquals(2, myMultiset.add("Poe", 5));
+        assertEquals(0, myMultiset.add("Raven", 3));
+
+        assertEquals(7, myMultiset.count("Poe"));
+        assertEquals(3, myMultiset.count("Raven"));
+        assertEquals(0, myMultiset.count("Lenore"));
+        assertEquals(2, myMultiset.distinctSize());
+        assertEquals(10, myMultiset.totalCount());
+    }
+
+    @Test
+    void add_Normal_resize() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 10000; i++) {
+                myMultiset.add(((Integer) i).toString(), i % 7 + 1);
+            }
+        }
+
+        assertEquals(10000, myMultiset.distinctSize());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(3 * (i % 7 + 1), myMultiset.count(((Integer) i).toString()), "A count is lost when the table is resized");
+        }
+    }
+
+    @Test
+    void add_Edge_nullAndZero() {
+        assertEquals(0, myMultiset.add(null, 2));
+        assertEquals(2, myMultiset.count(null));
+        assertEquals(0, myMultiset.add("Poe", 0));
+        assertFalse(myMultiset.contains("Poe"), "Adding zero occurrences is adding the element");
+    }
+
+    @Test
+    void add_Exception() {
+        assertThrows(IllegalArgumentException.class, () -> myMultiset.add("Poe", -1));
+
+        myMultiset.add("Poe", Integer.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> myMultiset.add("Poe"));
+        assertEquals(Integer.MAX_VALUE, myMultiset.count("Poe"));
+    }
+
+    @Test
+    void removeOccurrences_Normal() {
+        myMultiset.add("Poe", 5);
+        myMultiset.add("Raven", 2);
+
+        assertEquals(5, myMultiset.removeOccurrences("Poe", 3));
+        assertEquals(2, myMultiset.count("Poe"));
+        assertEquals(2, myMultiset.removeOccurrences("Poe", 10));
+        assertFalse(myMultiset.contains("Poe"));
+        assertEquals(0, myMultiset.removeOccurrences("Poe", 1));
+
+        assertEquals(1, myMultiset.distinctSize());
+        assertEquals(2, myMultiset.totalCount());
+        assertEquals(2, myMultiset.removeAll("Raven"));
+        assertTrue(myMultiset.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> myMultiset.removeOccurrences("Raven", -1));
+    }
+
+    @Test
+    void removeOccurrences_Edge_sharedBucket() {
+        //Under a strategy hashing everything alike, every element lives in one bucket
+        MyHashMultiset<String> crowded = new MyHashMultiset<>(new HashingStrategy<String>() {
+            @Override
+            public int computeHashCode(String s) {
+                return 0;
+            }
+
+            @Override
+            public boolean equals(String a, String b) {
+                return Objects.equals(a, b);
+            }
+        });
+        for (int i = 0; i < 20; i++) {
+            crowded.add(((Integer) i).toString(), i + 1);
+        }
+
+        crowded.removeAll("0");
+        crowded.removeAll("7");
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i == 0 || i == 7 ? 0 : i + 1, crowded.count(((Integer) i).toString()), "Removal is disturbing its neighbours' counts");
+        }
+    }
+
+    @Test
+    void strategy_Normal_caseInsensitive() {
+        MyHashMultiset<String> words = new MyHashMultiset<>(HashingStrategy.caseInsensitive());
+        words.add("Nevermore");
+        words.add("NEVERMORE");
+        words.add("nevermore");
+
+        assertEquals(1, words.distinctSize());
+        assertEquals(3, words.count("NeverMore"));
+    }
+
+    @Test
+    void topK_Normal() {
+        for (int i = 1; i <= 1000; i++) {
+            myMultiset.add(((Integer) i).toString(), i);
+        }
+
+        List<Map.Entry<String, Integer>> top = myMultiset.topK(3);
+        assertEquals(List.of("1000", "999", "998"), top.stream().map(Map.Entry::getKey).toList());
+        assertEquals(List.of(1000, 999, 998), top.stream().map(Map.Entry::getValue).toList());
+
+        assertEquals(1000, myMultiset.topK(5000).size());
+        assertTrue(myMultiset.topK(0).isEmpty());
+        assertTrue(new MyHashMultiset<String>().topK(3).isEmpty());
+
+        MyHashMultiset<String> emptied = new MyHashMultiset<>();
+        emptied.add("a");
+        emptied.removeAll("a");
+        assertTrue(emptied.topK(3).isEmpty(), "A multiset emptied by removal is failing topK");
+        assertThrows(IllegalArgumentException.class, () -> myMultiset.topK(-1));
+    }
+
+    @Test
+    void iterator_Normal() {
+        myMultiset.add("Poe", 3);
+        myMultiset.add("E.");
+        myMultiset.add(null);
+
+        Set<String> seen = new HashSet<>();
+        for (String el : myMultiset) {
+            assertTrue(seen.add(el), "An element is visited once per occurrence");
+        }
+        assertEquals(new HashSet<>(Arrays.asList("Poe", "E.", null)), seen);
+
+        Map<String, Integer> entries = new HashMap<>();
+        myMultiset.forEachEntry(entries::put);
+        assertEquals(3, (int) entries.get("Poe"));
+        assertEquals(1, (int) entries.get(null));
+    }
+
+    @Test
+    void iterator_Exception_modification() {
+        myMultiset.add("Poe");
+        myMultiset.add("E.");
+        Iterator<String> sitter = myMultiset.iterator();
+
+        sitter.next();
+        myMultiset.add("Poe");
+        assertThrows(ConcurrentModificationException.class, sitter::next, "Counting up an element is not being detected as a modification");
+    }
+
+    @Test
+    void clear_Normal() {
+        myMultiset.add("Poe", 4);
+        myMultiset.clear();
+
+        assertTrue(myMultiset.isEmpty());
+        assertEquals(0, myMultiset.totalCount());
+        assertEquals(0, myMultiset.count("Poe"));
+        assertFalse(myMultiset.iterator().hasNext());
+        assertEquals(0, myMultiset.add("Poe"));
+    }
+
+    @Test
+    void constructor_Exception() {
+        assertThrows(IllegalArgumentException.class, () -> new MyHashMultiset<String>(-1));
+        assertThrows(IllegalArgumentException.class, () -> new MyHashMultiset<String>(16, 0));
+        assertThrows(NullPointerException.class, () -> new MyHashMultiset<String>(16, .75, null));
+    }
+}
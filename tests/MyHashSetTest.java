@@ -1,7 +1,12 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -360,6 +365,410 @@ class MyHashSetTest {
         assertThrows(ConcurrentModificationException.class, sitter::next, "clear() seems to be resetting the mod_count");
     }
 
+    @Test
+    void strategy_Normal_caseInsensitive() {
+        mySet = new MyHashSet<>(HashingStrategy.caseInsensitive());
+        prep();
+
+        assertTrue(mySet.contains("POE"), "Case-insensitive strategy is not matching differently cased strings");
+        assertFalse(mySet.add("near A RAVEN"), "Case-insensitive strategy is letting duplicates in");
+        assertTrue(mySet.remove("e."), "Case-insensitive strategy is not removing differently cased strings");
+        assertEquals(2, mySet.size());
+    }
+
+    @Test
+    void strategy_Normal_arrayContents() {
+        Set<byte[]> byteSet = new MyHashSet<>(HashingStrategy.arrayContents());
+
+        assertTrue(byteSet.add(new byte[]{1, 2, 3}));
+        assertFalse(byteSet.add(new byte[]{1, 2, 3}), "Array-content strategy is letting equal arrays in twice");
+        assertTrue(byteSet.contains(new byte[]{1, 2, 3}), "Array-content strategy is not finding arrays by their contents");
+        assertFalse(byteSet.contains(new byte[]{3, 2, 1}));
+    }
+
+    @Test
+    void strategy_Edge_identity() {
+        Set<String> identitySet = new MyHashSet<>(HashingStrategy.identity());
+        String original = "Poe";
+        String copy = new String(original);
+
+        identitySet.add(original);
+
+        assertTrue(identitySet.contains(original));
+        assertFalse(identitySet.contains(copy), "Identity strategy is matching distinct but equal objects");
+        assertTrue(identitySet.add(copy), "Identity strategy is rejecting distinct but equal objects");
+        assertEquals(2, identitySet.size());
+    }
+
+    @Test
+    void strategy_Edge_refactor() {
+        mySet = new MyHashSet<>(2, HashingStrategy.caseInsensitive());
+        bigPrep();
+
+        assertEquals(32, mySet.size());
+        assertTrue(mySet.contains("31"), "Strategy is being lost when the Set is refactored");
+    }
+
+    @Test
+    void strategy_Edge_minValueHash() {
+        //Math.abs(Integer.MIN_VALUE) is still negative, and a table of 10 buckets does not divide it evenly
+        mySet = new MyHashSet<>(10, new HashingStrategy<String>() {
+            @Override
+            public int computeHashCode(String s) {
+                return "Poe".equals(s) ? Integer.MIN_VALUE : Objects.hashCode(s);
+            }
+
+            @Override
+            public boolean equals(String a, String b) {
+                return Objects.equals(a, b);
+            }
+        });
+        bigPrep();
+
+        assertTrue(mySet.add("Poe"), "An element hashing to Integer.MIN_VALUE is being given a bucket out of range");
+        assertTrue(mySet.contains("Poe"));
+        assertTrue(mySet.remove("Poe"));
+    }
+
+    @Test
+    void collect_Normal() {
+        mySet = MyHashSet.collect(IntStream.range(0, 10000).mapToObj(i -> ((Integer) (i % 5000)).toString()));
+
+        assertEquals(5000, mySet.size(), "collect() is not dropping duplicates");
+        assertTrue(mySet.contains("4999"));
+        assertFalse(mySet.contains("5000"));
+        assertEquals(5000, new ArrayList<>(mySet).size(), "The iterator is not finding every collected element");
+    }
+
+    @Test
+    void collect_Edge_clearForgetsBulkCapacity() {
+        MyHashSet<Integer> built = MyHashSet.collect(IntStream.range(0, 100000).boxed());
+        built.clear();
+        for (int i = 0; i < 5; i++) {
+            built.add(i);
+        }
+
+        MyHashSet<Integer> fresh = new MyHashSet<>();
+        for (int i = 0; i < 5; i++) {
+            fresh.add(i);
+        }
+        assertEquals(fresh.memoryFootprint().tableBytes(), built.memoryFootprint().tableBytes(),
+                "A cleared bulk-built set is reallocating its bulk-sized table");
+    }
+
+    @Test
+    void collect_Edge_NullAndEmpty() {
+        assertTrue(MyHashSet.collect(Stream.empty()).isEmpty());
+
+        mySet = MyHashSet.collect(Stream.of("Poe", null, "Poe", null));
+        assertEquals(2, mySet.size());
+        assertTrue(mySet.contains(null), "collect() is losing null elements");
+
+        //A collected set must keep behaving like any other once built
+        bigPrep();
+        assertEquals(34, mySet.size());
+    }
+
+    @Test
+    void collect_Edge_strategy() {
+        mySet = MyHashSet.collect(Stream.of("Poe", "POE", "poe", "E."), HashingStrategy.caseInsensitive());
+
+        assertEquals(2, mySet.size(), "collect() is ignoring the hashing strategy");
+    }
+
+    @Test
+    void load_Normal() throws IOException {
+        Path file = Files.createTempFile("myhashset", ".txt");
+        try {
+            Files.write(file, List.of("3", "1", "4", "1", "5", "9", "2", "6"));
+
+            Set<Integer> loaded = MyHashSet.load(file, Integer::valueOf);
+
+            assertEquals(7, loaded.size());
+            assertTrue(loaded.containsAll(List.of(1, 2, 3, 4, 5, 6, 9)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void hashCode_Normal() {
+        bigPrep();
+        Set<String> testable = new HashSet<>(mySet);
+
+        assertEquals(testable.hashCode(), mySet.hashCode(), "hashCode() does not match the Set contract");
+
+        mySet.remove("7");
+        testable.remove("7");
+        mySet.add(null);
+        testable.add(null);
+        assertEquals(testable.hashCode(), mySet.hashCode(), "hashCode() is not following removes and null adds");
+
+        mySet.clear();
+        assertEquals(0, mySet.hashCode());
+    }
+
+    @Test
+    void equals_Normal() {
+        bigPrep();
+        Set<String> other = new MyHashSet<>(2);
+        for (int i = 31; i >= 0; i--) {
+            other.add(((Integer) i).toString());
+        }
+
+        assertEquals(mySet, other, "Sets with the same elements are not equal");
+        assertEquals(new HashSet<>(mySet), mySet, "MyHashSet is not equal to a HashSet of the same elements");
+        assertEquals(mySet, new HashSet<>(mySet));
+
+        other.remove("0");
+        other.add("Poe");
+        assertNotEquals(mySet, other, "Sets of equal size with different elements are equal");
+        assertNotEquals(mySet, new ArrayList<>(mySet), "A Set is equal to a List");
+    }
+
+    @Test
+    void equals_Edge_setOfSets() {
+        Set<Set<String>> sets = new MyHashSet<>();
+        prep();
+        sets.add(mySet);
+
+        Set<String> copy = new MyHashSet<>();
+        copy.add("Near a raven");
+        copy.add("E.");
+        copy.add("Poe");
+
+        assertTrue(sets.contains(copy), "An equal set is not being found in a set of sets");
+        assertFalse(sets.add(copy));
+    }
+
+    @Test
+    void smallSet_Normal_promotion() {
+        //Grow one element at a time across the small-set limit, checking every element at each step
+        for (int i = 0; i < 10; i++) {
+            assertTrue(mySet.add(((Integer) i).toString()));
+            assertFalse(mySet.add(((Integer) i).toString()), "A duplicate is being accepted at size " + (i + 1));
+
+            for (int j = 0; j <= i; j++) {
+                assertTrue(mySet.contains(((Integer) j).toString()), "An element is lost when the Set grows to size " + (i + 1));
+            }
+            assertEquals(i + 1, mySet.size());
+            assertEquals(i + 1, new ArrayList<>(mySet).size(), "The iterator is miscounting at size " + (i + 1));
+        }
+    }
+
+    @Test
+    void smallSet_Edge_removeKeepsPacked() {
+        prep();
+        mySet.add(null);
+
+        assertTrue(mySet.remove("Poe"));
+        assertTrue(mySet.remove(null));
+        assertFalse(mySet.remove("Poe"));
+
+        assertEquals(2, mySet.size());
+        assertTrue(mySet.containsAll(List.of("E.", "Near a raven")), "Removing from a small Set is losing other elements");
+        assertEquals(Set.of("E.", "Near a raven"), new HashSet<>(mySet));
+    }
+
+    @Test
+    void smallSet_Edge_zeroCapacity() {
+        mySet = new MyHashSet<>(0);
+        bigPrep();
+
+        assertEquals(32, mySet.size(), "A zero initial capacity is breaking promotion out of the small-set array");
+    }
+
+    @Test
+    void smallSet_Edge_concurrentModOnPromotion() {
+        prep();
+        mySet.add("Lenore");
+        Iterator<String> sitter = mySet.iterator();
+
+        mySet.add("Nevermore");
+        assertThrows(ConcurrentModificationException.class, sitter::next, "Promotion is not being detected as a modification");
+    }
+
+    @Test
+    void memoryFootprint_Normal_breakdown() {
+        MyHashSet<String> set = new MyHashSet<>();
+        long emptyBytes = set.estimatedRetainedBytes();
+
+        set.add("Poe");
+        long smallBytes = set.estimatedRetainedBytes();
+        assertTrue(smallBytes > emptyBytes, "Allocating the small-set array is not being counted");
+
+        for (int i = 0; i < 100; i++) {
+            set.add(((Integer) i).toString());
+        }
+        MemoryFootprint footprint = set.memoryFootprint();
+
+        assertEquals(footprint.setBytes() + footprint.tableBytes() + footprint.bucketBytes(), footprint.structuralBytes());
+        assertEquals(footprint.structuralBytes(), set.estimatedRetainedBytes());
+        assertTrue(footprint.slackBytes() > 0 && footprint.slackBytes() < footprint.tableBytes() + footprint.bucketBytes());
+        assertEquals(0, footprint.elementBytes(), "A structural footprint is counting element bytes");
+        assertEquals((double) footprint.structuralBytes() / 101, footprint.perElementOverhead(), 1e-9);
+    }
+
+    @Test
+    void memoryFootprint_Normal_elementSizer() {
+        prep();
+        MyHashSet<String> set = (MyHashSet<String>) mySet;
+        set.add(null);
+
+        assertEquals(set.estimatedRetainedBytes() + 3 * 100, set.estimatedRetainedBytes(el -> 100), "The element sizer is not being applied once per non-null element");
+    }
+
+    @Test
+    void memoryFootprint_Benchmark_heapDelta() {
+        //Keys are made up front so that only the sets' own structure lands in the measured delta
+        Integer[] keys = new Integer[40];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 1000 + i;
+        }
+
+        long before = usedHeapAfterGc();
+        MyHashSet<?>[] sets = new MyHashSet<?>[20000];
+        for (int i = 0; i < sets.length; i++) {
+            MyHashSet<Integer> set = new MyHashSet<>();
+            for (int j = 0; j < i % keys.length; j++) {
+                set.add(keys[j]);
+            }
+            sets[i] = set;
+        }
+        long measured = usedHeapAfterGc() - before;
+
+        long estimated = MemoryFootprint.referenceArrayBytes(sets.length);
+        for (MyHashSet<?> set : sets) {
+            estimated += set.estimatedRetainedBytes();
+        }
+
+        assertEquals(1.0, (double) estimated / measured, .2, "Estimated retained bytes are straying from the measured heap delta");
+    }
+
+    /**
+     * Helper method returning the heap in use after asking the collector, a few times over, to run.
+     */
+    long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Test
+    void deltaSince_Normal_coalesced() {
+        MyHashSet<String> leader = new MyHashSet<>();
+        mySet = leader;
+        prep();
+        int version = leader.trackChanges();
+        MyHashSet<String> follower = new MyHashSet<>();
+        follower.addAll(mySet);
+
+        mySet.add("Lenore");
+        mySet.add("Nevermore");
+        mySet.remove("Nevermore");
+        mySet.remove("Poe");
+        mySet.add("Poe");
+        mySet.remove("E.");
+        bigPrep();
+
+        SetDelta<String> delta = leader.deltaSince(version);
+        assertFalse(delta.isReset());
+        assertFalse(delta.added().contains("Nevermore"), "An add followed by a remove is not cancelling out");
+        assertFalse(delta.added().contains("Poe"), "A remove followed by an add is not cancelling out");
+        assertEquals(List.of("E."), delta.removed());
+        assertEquals(mySet.size() - 2, delta.added().size());
+        assertEquals(leader.version(), delta.toVersion());
+
+        assertTrue(follower.applyDelta(delta));
+        assertEquals(mySet, follower);
+        assertTrue(leader.deltaSince(delta.toVersion()).isEmpty());
+    }
+
+    @Test
+    void deltaSince_Edge_clearIsReset() {
+        MyHashSet<String> leader = new MyHashSet<>();
+        mySet = leader;
+        prep();
+        int version = leader.trackChanges();
+        MyHashSet<String> follower = new MyHashSet<>();
+        follower.addAll(mySet);
+
+        mySet.clear();
+        mySet.add("Lenore");
+
+        SetDelta<String> delta = leader.deltaSince(version);
+        assertTrue(delta.isReset());
+        assertEquals(List.of("Lenore"), delta.added());
+        follower.applyDelta(delta);
+        assertEquals(Set.of("Lenore"), follower);
+    }
+
+    @Test
+    void deltaSince_Exception() {
+        MyHashSet<String> leader = new MyHashSet<>();
+        mySet = leader;
+        assertThrows(IllegalStateException.class, () -> leader.deltaSince(0), "Deltas are available without tracking");
+
+        prep();
+        int version = leader.trackChanges();
+        mySet.add("Lenore");
+        leader.discardChangesThrough(leader.version());
+
+        assertThrows(IllegalStateException.class, () -> leader.deltaSince(version), "Discarded changes are still being served");
+        assertThrows(IllegalArgumentException.class, () -> leader.deltaSince(leader.version() + 1));
+        assertTrue(leader.deltaSince(leader.version()).isEmpty());
+    }
+
+    @Test
+    void adaptLoadFactor_Normal_collidingKeys() {
+        MyHashSet<Integer> set = new MyHashSet<>();
+        set.adaptLoadFactor(.25, 4);
+
+        //Multiples of 1024 all land in one bucket of any table of 1024 buckets or fewer
+        for (int i = 0; i < 5000; i++) {
+            set.add(i * 1024);
+        }
+
+        assertTrue(set.loadFactor() < .75, "Heavy collisions are not lowering the load factor");
+        assertTrue(set.loadFactor() >= .25, "The load factor is leaving its bounds");
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(set.contains(i * 1024));
+        }
+    }
+
+    @Test
+    void adaptLoadFactor_Normal_spreadKeys() {
+        MyHashSet<Integer> set = new MyHashSet<>();
+        set.adaptLoadFactor(.25, 2);
+
+        for (int i = 0; i < 50000; i++) {
+            set.add(i);
+        }
+
+        assertTrue(set.loadFactor() > .75, "Well spread keys are not raising the load factor");
+        assertTrue(set.loadFactor() <= 2, "The load factor is leaving its bounds");
+        MyHashSet<Integer> fixed = new MyHashSet<>();
+        for (int i = 0; i < 50000; i++) {
+            fixed.add(i);
+        }
+        assertTrue(set.memoryFootprint().tableBytes() < fixed.memoryFootprint().tableBytes(), "The denser table is not any smaller");
+        assertEquals(50000, set.size());
+        assertTrue(set.contains(49999));
+    }
+
+    @Test
+    void adaptLoadFactor_Exception() {
+        MyHashSet<Integer> set = new MyHashSet<>();
+
+        assertThrows(IllegalArgumentException.class, () -> set.adaptLoadFactor(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> set.adaptLoadFactor(2, 1));
+        set.adaptLoadFactor(1, 2);
+        assertEquals(1.0, set.loadFactor(), "The load factor is not clamped into its new bounds");
+    }
+
     /**
      * Helper method to prepare the 'mySet' for tests by adding some sample strings.
      * Note: This method assumes 'mySet' is initialized and empty.
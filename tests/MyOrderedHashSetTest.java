@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyOrderedHashSetTest {
+
+    Set<String> mySet;
+
+
+    @BeforeEach
+    void setUp() {
+        mySet = new MyOrderedHashSet<>();
+    }
+
+    @Test
+    void iterator_Normal_insertionOrder() {
+        bigPrep();
+
+        int counter = 0;
+        for (String word : mySet) {
+            assertEquals(((Integer) counter++).toString(), word, "Iteration is not following insertion order");
+        }
+        assertEquals(32, counter);
+    }
+
+    @Test
+    void add_Edge_Duplication() {
+        mySet.add("Poe");
+        mySet.add("E.");
+
+        assertFalse(mySet.add("Poe"), "Duplicate element is being accepted");
+        assertArrayEquals(new Object[]{"Poe", "E."}, mySet.toArray(), "Re-adding an element is changing its position");
+    }
+
+    @Test
+    void remove_Normal_orderKept() {
+        bigPrep();
+
+        for (int i = 0; i < 32; i += 2) {
+            assertTrue(mySet.remove(((Integer) i).toString()));
+        }
+        assertEquals(16, mySet.size());
+
+        int expected = 1;
+        for (String word : mySet) {
+            assertEquals(((Integer) expected).toString(), word, "Removal is disturbing the order of the remaining elements");
+            expected += 2;
+        }
+    }
+
+    @Test
+    void remove_Edge_churn() {
+        //Repeated add/remove fills the table with tombstones, which refactor() must clear out
+        for (int i = 0; i < 1000; i++) {
+            mySet.add("churn" + i);
+            assertTrue(mySet.remove("churn" + i));
+        }
+
+        assertTrue(mySet.isEmpty());
+        mySet.add("Poe");
+        assertArrayEquals(new Object[]{"Poe"}, mySet.toArray());
+    }
+
+    @Test
+    void contains_Edge_NullEl() {
+        mySet.add("Poe");
+        assertFalse(mySet.contains(null));
+
+        mySet.add(null);
+        mySet.add("E.");
+        assertTrue(mySet.contains(null), "null is not being found as an element despite being added");
+        assertArrayEquals(new Object[]{"Poe", null, "E."}, mySet.toArray());
+
+        assertTrue(mySet.remove(null));
+        assertFalse(mySet.contains(null));
+    }
+
+    @Test
+    void retainAll_Normal() {
+        bigPrep();
+
+        assertTrue(mySet.retainAll(List.of("3", "1", "nonexistent")));
+        assertArrayEquals(new Object[]{"1", "3"}, mySet.toArray(), "retainAll() is keeping the wrong elements or reordering them");
+    }
+
+    @Test
+    void next_Edge_concurrentMod() {
+        Iterator<String> sitter = mySet.iterator();
+        mySet.add("Poe");
+
+        assertThrows(ConcurrentModificationException.class, sitter::next);
+    }
+
+    @Test
+    void constructor_Edge_loadFactorTooHigh() {
+        assertThrows(IllegalArgumentException.class, () -> new MyOrderedHashSet<String>(16, 1.0));
+    }
+
+    /**
+     * Helper method to populate 'mySet' with the strings "0" to "31" in ascending order.
+     */
+    void bigPrep() {
+        for (int i = 0; i < 32; i++) {
+            mySet.add(((Integer) i).toString());
+        }
+    }
+}
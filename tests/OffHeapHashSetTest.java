@@ -0,0 +1,152 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapHashSetTest {
+
+    OffHeapHashSet<Long> mySet;
+
+
+    @BeforeEach
+    void setUp() {
+        mySet = new OffHeapHashSet<>(FixedWidthCodec.LONGS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mySet.close();
+    }
+
+    @Test
+    void add_Normal_resize() {
+        for (long i = 0; i < 10000; i++) {
+            assertTrue(mySet.add(i * 7919));
+        }
+
+        assertEquals(10000, mySet.size());
+        assertFalse(mySet.add(7919L), "Duplicate element is being accepted");
+        for (long i = 0; i < 10000; i++) {
+            assertTrue(mySet.contains(i * 7919), "Element is lost after the table is resized");
+        }
+        assertFalse(mySet.contains(1L));
+    }
+
+    @Test
+    void remove_Normal() {
+        for (long i = 0; i < 100; i++) {
+            mySet.add(i);
+        }
+
+        for (long i = 0; i < 100; i += 2) {
+            assertTrue(mySet.remove(i));
+        }
+        assertFalse(mySet.remove(0L));
+
+        assertEquals(50, mySet.size());
+        assertFalse(mySet.contains(10L));
+        assertTrue(mySet.contains(11L), "Removal is breaking the probe chain of other elements");
+    }
+
+    @Test
+    void remove_Edge_churn() {
+        //Repeated add/remove leaves deleted slots behind, which must be reused or rehashed away
+        for (long i = 0; i < 100000; i++) {
+            mySet.add(i);
+            mySet.remove(i);
+        }
+
+        assertTrue(mySet.isEmpty());
+        assertTrue(mySet.offHeapBytes() < 1024, "Churn is growing the table although the set never holds more than one element");
+    }
+
+    @Test
+    void iterator_Normal() {
+        Set<Long> testable = new HashSet<>();
+        for (long i = -50; i < 50; i++) {
+            mySet.add(i);
+            testable.add(i);
+        }
+
+        assertEquals(testable, new HashSet<>(mySet), "The iterator is not decoding the elements that were added");
+    }
+
+    @Test
+    void contains_Edge_foreignTypes() {
+        mySet.add(1L);
+
+        assertFalse(mySet.contains(null));
+        assertFalse(mySet.contains("1"), "An object the codec cannot encode is being found");
+        assertThrows(NullPointerException.class, () -> mySet.add(null));
+    }
+
+    @Test
+    void contains_Normal_concurrentReaders() throws InterruptedException {
+        for (long i = 0; i < 100000; i++) {
+            mySet.add(i);
+        }
+
+        //With no writer, readers must never see each other's keys
+        AtomicInteger misses = new AtomicInteger();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 8; r++) {
+            readers.add(new Thread(() -> {
+                for (long i = 0; i < 100000; i++) {
+                    if (!mySet.contains(i))
+                        misses.incrementAndGet();
+                }
+            }));
+        }
+
+        readers.forEach(Thread::start);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(0, misses.get(), "Concurrent lookups are overwriting each other's keys");
+    }
+
+    @Test
+    void hashCode_Edge_byteArraysByContent() {
+        try (OffHeapHashSet<byte[]> arrays = new OffHeapHashSet<>(FixedWidthCodec.bytes(3))) {
+            Set<List<Byte>> expected = new HashSet<>();
+            for (byte i = 0; i < 50; i++) {
+                arrays.add(new byte[]{i, 7, (byte) -i});
+                expected.add(List.of(i, (byte) 7, (byte) -i));
+            }
+
+            //A List<Byte> hashes as Arrays.hashCode does the array, and decoded arrays are new objects every time
+            assertEquals(arrays.hashCode(), arrays.hashCode(), "hashCode() is not stable");
+            assertEquals(expected.hashCode(), arrays.hashCode(), "Byte arrays are not being hashed by content");
+        }
+    }
+
+    @Test
+    void close_Edge_useAfterClose() {
+        mySet.add(1L);
+        mySet.close();
+
+        assertEquals(0, mySet.offHeapBytes());
+        assertThrows(IllegalStateException.class, () -> mySet.contains(1L));
+        assertDoesNotThrow(mySet::close);
+    }
+
+    @Test
+    void codec_Normal_uuidAndBytes() {
+        try (OffHeapHashSet<UUID> uuids = new OffHeapHashSet<>(FixedWidthCodec.UUIDS);
+             OffHeapHashSet<byte[]> arrays = new OffHeapHashSet<>(FixedWidthCodec.bytes(3))) {
+            UUID id = UUID.randomUUID();
+            uuids.add(id);
+            assertTrue(uuids.contains(new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits())));
+
+            arrays.add(new byte[]{1, 2, 3});
+            assertTrue(arrays.contains(new byte[]{1, 2, 3}), "Byte arrays are not being compared by content");
+            assertFalse(arrays.contains(new byte[]{1, 2}));
+            assertThrows(IllegalArgumentException.class, () -> arrays.add(new byte[]{1}));
+        }
+    }
+}
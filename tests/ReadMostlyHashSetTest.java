@@ -0,0 +1,114 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadMostlyHashSetTest {
+
+    Set<String> mySet;
+
+
+    @BeforeEach
+    void setUp() {
+        mySet = new ReadMostlyHashSet<>();
+    }
+
+    @Test
+    void contains_Normal() {
+        mySet.add("Poe");
+        mySet.add(null);
+
+        assertTrue(mySet.contains("Poe"));
+        assertTrue(mySet.contains(null));
+        assertFalse(mySet.contains("E."));
+        assertEquals(2, mySet.size());
+    }
+
+    @Test
+    void iterator_Edge_snapshot() {
+        mySet.addAll(List.of("Poe", "E.", "raven"));
+        Iterator<String> sitter = mySet.iterator();
+
+        mySet.add("Lenore");
+
+        int counter = 0;
+        while (sitter.hasNext()) {
+            sitter.next();
+            counter++;
+        }
+        assertEquals(3, counter, "The iterator is not walking the snapshot it was created with");
+    }
+
+    @Test
+    void iterator_Normal_remove() {
+        mySet.addAll(List.of("Poe", "E.", "raven"));
+        Iterator<String> sitter = mySet.iterator();
+
+        String removed = sitter.next();
+        sitter.remove();
+
+        assertFalse(mySet.contains(removed));
+        assertEquals(2, mySet.size());
+    }
+
+    @Test
+    void retainAll_Normal() {
+        mySet.addAll(List.of("Poe", "E.", "raven"));
+
+        assertTrue(mySet.retainAll(List.of("raven")));
+        assertEquals(Set.of("raven"), new HashSet<>(mySet));
+        assertTrue(mySet.removeAll(List.of("raven")));
+        assertTrue(mySet.isEmpty());
+    }
+
+    @Test
+    void contains_Edge_concurrentWriter() throws InterruptedException {
+        //Readers must always see the stable keys while a writer churns others through adds, removes and resizes
+        for (int i = 0; i < 100; i++) {
+            mySet.add("stable" + i);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+
+        Thread writer = new Thread(() -> {
+            for (int round = 0; running.get(); round++) {
+                for (int i = 0; i < 200; i++) {
+                    mySet.add("churn" + round + "-" + i);
+                }
+                for (int i = 0; i < 200; i++) {
+                    mySet.remove("churn" + round + "-" + i);
+                }
+            }
+        });
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                while (running.get()) {
+                    for (int i = 0; i < 100; i++) {
+                        if (!mySet.contains("stable" + i))
+                            misses.incrementAndGet();
+                    }
+                    if (mySet.size() < 100)
+                        misses.incrementAndGet();
+                }
+            }));
+        }
+
+        writer.start();
+        readers.forEach(Thread::start);
+        Thread.sleep(300);
+        running.set(false);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(0, misses.get(), "Optimistic reads are returning results from torn states");
+    }
+}
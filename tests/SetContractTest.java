@@ -0,0 +1,79 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks every set in the project against the {@link Set} contract for {@code equals}, {@code hashCode} and
+ * {@code toString}, using a {@link HashSet} of the same elements as the reference.
+ */
+class SetContractTest {
+
+    @Test
+    void myOrderedHashSet() {
+        assertSetContract(new MyOrderedHashSet<>(), Arrays.asList("Poe", "E.", "raven", null, "Lenore"));
+    }
+
+    @Test
+    void shardedHashSet() {
+        assertSetContract(new ShardedHashSet<>(4), Arrays.asList("Poe", "E.", "raven", null, "Lenore"));
+    }
+
+    @Test
+    void utf8StringSet() {
+        assertSetContract(new Utf8StringSet(), List.of("Poe", "E.", "caf\u00e9", "\u65e5\u672c", ""));
+
+        Utf8StringSet one = new Utf8StringSet();
+        one.add("1");
+        assertNotEquals(one, Set.of(1), "A string is matching a number");
+    }
+
+    @Test
+    void spillingHashSet() throws IOException {
+        Path spillParent = Files.createTempDirectory("spillTest");
+        List<Long> elements = new ArrayList<>();
+        for (long i = 1; i <= 2000; i++) {
+            elements.add(i * 7919);
+        }
+
+        //Small enough a budget that most of the elements are compared from disk
+        try (SpillingHashSet<Long> spilling = new SpillingHashSet<>(SpillCodec.LONGS, el -> 24, 16 * 1024, spillParent, 4)) {
+            assertSetContract(spilling, elements);
+        }
+        Files.delete(spillParent);
+    }
+
+    @Test
+    void offHeapHashSet() {
+        try (OffHeapHashSet<Long> longs = new OffHeapHashSet<>(FixedWidthCodec.LONGS)) {
+            assertSetContract(longs, List.of(-50L, 7L, 0L, 1L << 40, Long.MIN_VALUE));
+            assertNotEquals(longs, Set.of("7"), "A set of elements the codec cannot encode is being matched");
+        }
+    }
+
+    /**
+     * Fills the set under test with the given elements, whose first two must differ, and checks it against a
+     * {@link HashSet} before and after the first is removed.
+     */
+    static <E> void assertSetContract(Set<E> mySet, List<E> elements) {
+        mySet.addAll(elements);
+        Set<E> expected = new HashSet<>(elements);
+
+        assertEquals(expected, mySet);
+        assertEquals(mySet, expected, "Equality is not symmetric with other Set implementations");
+        assertEquals(expected.hashCode(), mySet.hashCode());
+        assertEquals(mySet.hashCode(), mySet.hashCode(), "hashCode() is not stable");
+        assertNotEquals(mySet, new ArrayList<>(expected), "A set is equal to a list");
+
+        mySet.remove(elements.get(0));
+        assertNotEquals(mySet, expected);
+        assertNotEquals(expected, mySet);
+
+        mySet.retainAll(Collections.singleton(elements.get(1)));
+        assertEquals("[" + elements.get(1) + "]", mySet.toString());
+    }
+}
@@ -0,0 +1,158 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedHashSetTest {
+
+    ShardedHashSet<String> mySet;
+
+
+    @BeforeEach
+    void setUp() {
+        mySet = new ShardedHashSet<>(4);
+    }
+
+    @Test
+    void shardCount_Edge_rounding() {
+        assertEquals(4, mySet.shardCount());
+        assertEquals(8, new ShardedHashSet<String>(5).shardCount(), "Shard count is not being rounded up to a power of two");
+        assertEquals(1, new ShardedHashSet<String>(1).shardCount());
+        assertThrows(IllegalArgumentException.class, () -> new ShardedHashSet<String>(0));
+    }
+
+    @Test
+    void addAll_Normal() {
+        assertTrue(mySet.addAll(bigList()));
+        assertFalse(mySet.addAll(bigList()), "addAll() is reporting a change when every element was already present");
+
+        assertEquals(1000, mySet.size());
+        assertTrue(mySet.containsAll(bigList()), "Elements added in bulk are not being found");
+        assertFalse(mySet.containsAll(List.of("0", "Poe")));
+    }
+
+    @Test
+    void add_Normal_shardsAreDisjoint() {
+        mySet.addAll(bigList());
+        int total = 0;
+
+        for (int i = 0; i < mySet.shardCount(); i++) {
+            for (String el : mySet.shardSnapshot(i)) {
+                assertEquals(i, mySet.shardOf(el), "An element is being stored outside its shard");
+                total++;
+            }
+        }
+        assertEquals(mySet.size(), total);
+    }
+
+    @Test
+    void removeIf_Normal() {
+        mySet.addAll(bigList());
+
+        assertTrue(mySet.removeIf(el -> Integer.parseInt(el) % 2 == 0));
+        assertEquals(500, mySet.size());
+        assertFalse(mySet.contains("10"));
+        assertTrue(mySet.contains("11"));
+    }
+
+    @Test
+    void retainAll_Normal() {
+        mySet.addAll(bigList());
+
+        assertTrue(mySet.retainAll(List.of("1", "2", "Poe")));
+        assertEquals(2, mySet.size());
+        assertTrue(mySet.removeAll(List.of("1")));
+        assertEquals(Set.of("2"), new HashSet<>(mySet));
+    }
+
+    @Test
+    void iterator_Normal() {
+        mySet.addAll(bigList());
+        Set<String> testable = new HashSet<>();
+
+        for (String el : mySet) {
+            assertTrue(testable.add(el), "The iterator is returning an element twice");
+        }
+        assertEquals(new HashSet<>(bigList()), testable);
+    }
+
+    @Test
+    void parallelForEach_Normal() {
+        mySet.addAll(bigList());
+        AtomicInteger counter = new AtomicInteger();
+
+        mySet.parallelForEach(el -> counter.incrementAndGet());
+        assertEquals(1000, counter.get());
+    }
+
+    @Test
+    void parallelForEach_Edge_reentrantWrites() {
+        mySet.addAll(bigList());
+
+        //Each action writes to whichever shard its new element falls in, usually not the one being walked. A shard
+        //copied after another task wrote to it may include the new elements, so those are passed over.
+        mySet.parallelForEach(el -> {
+            if (!el.endsWith("!"))
+                mySet.add(el + "!");
+        });
+        assertEquals(2000, mySet.size());
+
+        assertTrue(mySet.removeIf(el -> el.endsWith("!") && mySet.contains(el.substring(0, el.length() - 1))));
+        assertEquals(new HashSet<>(bigList()), new HashSet<>(mySet));
+    }
+
+    @Test
+    void setAlgebra_Normal() {
+        ShardedHashSet<String> other = new ShardedHashSet<>(4);
+        mySet.addAll(List.of("Poe", "E.", "raven"));
+        other.addAll(List.of("raven", "Lenore"));
+
+        assertEquals(Set.of("Poe", "E.", "raven", "Lenore"), new HashSet<>(mySet.union(other)));
+        assertEquals(Set.of("raven"), new HashSet<>(mySet.intersection(other)));
+        assertEquals(Set.of("Poe", "E."), new HashSet<>(mySet.difference(other)));
+        assertEquals(Set.of("raven"), new HashSet<>(mySet.intersection(Set.of("raven", "Lenore"))), "Set algebra with an unsharded set is failing");
+    }
+
+    @Test
+    void union_Edge_unshardedSet() {
+        ShardedHashSet<String> sparse = new ShardedHashSet<>(8);
+        sparse.add("x");
+
+        //Set.of("a") reaches one shard at most, leaving the other shards' parts empty
+        assertEquals(Set.of("x", "a"), new HashSet<>(sparse.union(Set.of("a"))), "Union with an unsharded set is failing");
+        assertEquals(Set.of("x"), new HashSet<>(sparse.union(Set.of())));
+    }
+
+    @Test
+    void contains_Edge_NullEl() {
+        assertFalse(mySet.contains(null));
+        assertTrue(mySet.add(null));
+        assertTrue(mySet.contains(null));
+        assertTrue(mySet.remove(null));
+        assertTrue(mySet.isEmpty());
+    }
+
+    @Test
+    void removeIf_Edge_exceptionPropagates() {
+        mySet.addAll(bigList());
+
+        assertThrows(IllegalStateException.class, () -> mySet.removeIf(el -> {
+            throw new IllegalStateException();
+        }), "Exceptions thrown by shard tasks are not reaching the caller");
+    }
+
+    /**
+     * Helper method returning the strings "0" to "999".
+     */
+    List<String> bigList() {
+        List<String> words = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            words.add(((Integer) i).toString());
+        }
+        return words;
+    }
+}
@@ -0,0 +1,254 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillingHashSetTest {
+
+    Path spillParent;
+    SpillingHashSet<Long> mySet;
+
+
+    @BeforeEach
+    void setUp() throws IOException {
+        spillParent = Files.createTempDirectory("spillTest");
+        //A budget of a few hundred elements, so that every test spills
+        mySet = new SpillingHashSet<>(SpillCodec.LONGS, el -> 24, 16 * 1024, spillParent, 4);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mySet.close();
+        Files.deleteIfExists(spillParent);
+    }
+
+    @Test
+    void add_Normal_spills() {
+        for (long i = 0; i < 20000; i++) {
+            assertTrue(mySet.add(i * 7919));
+        }
+
+        assertEquals(20000, mySet.size());
+        assertTrue(mySet.runCount() > 0, "Hot table never spilled despite the budget");
+        assertTrue(mySet.hotSize() < 20000);
+
+        for (long i = 0; i < 20000; i++) {
+            assertTrue(mySet.contains(i * 7919), "Spilled element is lost");
+            assertFalse(mySet.add(i * 7919), "Spilled element is accepted again as a duplicate");
+        }
+        assertFalse(mySet.contains(1L));
+        assertEquals(20000, mySet.size());
+    }
+
+    @Test
+    void add_Edge_runsAreMerged() {
+        //Enough spills that every partition passes its run limit several times over
+        for (long i = 0; i < 200000; i++) {
+            mySet.add(i);
+        }
+
+        assertTrue(mySet.runCount() <= 4 * 9, "Runs are not being merged");
+        for (long i = 0; i < 200000; i += 997) {
+            assertTrue(mySet.contains(i), "Element is lost in a merge");
+        }
+    }
+
+    @Test
+    void add_Edge_mergesAreSizeTiered() {
+        for (long i = 0; i < 200000; i++) {
+            mySet.add(i);
+        }
+
+        //Rewriting every run of a partition on each merge costs dozens of writes per element at this size
+        assertTrue(mySet.recordsWritten() < 8 * 200000L, "Merges are rewriting large runs with every few spills");
+    }
+
+    @Test
+    void add_Exception_spillFailureIsAtomic() throws IOException {
+        try (SpillingHashSet<String> strings = new SpillingHashSet<>(SpillCodec.STRINGS, s -> 40 + 2L * s.length(), 8 * 1024, spillParent)) {
+            for (int i = 0; i < 50; i++) {
+                strings.add("key-" + i);
+            }
+            int runs = strings.runCount();
+
+            //writeUTF cannot write a string this long, so the spill it sets off fails part way through
+            String tooLong = "x".repeat(70000);
+            assertThrows(UncheckedIOException.class, () -> strings.add(tooLong));
+
+            assertFalse(strings.contains(tooLong), "The element whose spill failed is still in the set");
+            assertEquals(50, strings.size());
+            assertEquals(runs, strings.runCount(), "A failed spill is publishing runs");
+            for (int i = 0; i < 50; i++) {
+                assertTrue(strings.contains("key-" + i));
+            }
+
+            for (int i = 50; i < 3000; i++) {
+                strings.add("key-" + i);
+            }
+            assertEquals(3000, strings.size());
+            assertEquals(3000, new HashSet<>(strings).size(), "A failed spill is leaving duplicates behind");
+        }
+    }
+
+    @Test
+    void add_Exception_null() {
+        assertThrows(NullPointerException.class, () -> mySet.add(null));
+        assertFalse(mySet.contains(null));
+    }
+
+    @Test
+    void remove_Normal_spilledAndHot() {
+        for (long i = 0; i < 5000; i++) {
+            mySet.add(i);
+        }
+
+        for (long i = 0; i < 5000; i += 2) {
+            assertTrue(mySet.remove(i));
+        }
+        assertFalse(mySet.remove(0L));
+
+        assertEquals(2500, mySet.size());
+        for (long i = 0; i < 5000; i++) {
+            assertEquals(i % 2 == 1, mySet.contains(i));
+        }
+
+        assertTrue(mySet.add(0L), "Removed spilled element cannot be added back");
+        assertTrue(mySet.contains(0L));
+        assertEquals(2501, mySet.size());
+    }
+
+    @Test
+    void remove_Edge_removalsArePurged() {
+        for (long i = 0; i < 20000; i++) {
+            mySet.add(i);
+        }
+        int runs = mySet.runCount();
+
+        //Far more removals than the budget can hold, so they must be merged out of the runs along the way
+        for (long i = 0; i < 20000; i++) {
+            assertTrue(mySet.remove(i));
+        }
+
+        assertEquals(0, mySet.size());
+        assertFalse(mySet.iterator().hasNext());
+        assertTrue(mySet.runCount() < runs, "Runs emptied by removals are being kept");
+        assertTrue(mySet.add(7L));
+        assertTrue(mySet.contains(7L));
+    }
+
+    @Test
+    void iterator_Normal() {
+        Set<Long> expected = new HashSet<>();
+        for (long i = 0; i < 5000; i++) {
+            mySet.add(i * 31);
+            expected.add(i * 31);
+        }
+        for (long i = 0; i < 5000; i += 3) {
+            mySet.remove(i * 31);
+            expected.remove(i * 31);
+        }
+
+        Set<Long> seen = new HashSet<>();
+        for (Long el : mySet) {
+            assertTrue(seen.add(el), "Iterator returned an element twice");
+        }
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void iterator_Edge_abandonedHoldsNoFiles() throws IOException {
+        for (long i = 0; i < 5000; i++) {
+            mySet.add(i);
+        }
+
+        //Only Linux exposes this process's open files where a test can count them
+        Path openFiles = Path.of("/proc/self/fd");
+        if (!Files.isDirectory(openFiles))
+            return;
+
+        long before;
+        try (Stream<Path> fds = Files.list(openFiles)) {
+            before = fds.count();
+        }
+
+        //Each iterator is left inside a run, past the hot elements
+        for (int i = 0; i < 50; i++) {
+            Iterator<Long> it = mySet.iterator();
+            for (int j = 0; j < mySet.hotSize() + 10; j++) {
+                it.next();
+            }
+        }
+
+        try (Stream<Path> fds = Files.list(openFiles)) {
+            assertTrue(fds.count() <= before, "An abandoned iterator is keeping a run file open");
+        }
+    }
+
+    @Test
+    void iterator_Exception_modification() {
+        for (long i = 0; i < 10; i++) {
+            mySet.add(i);
+        }
+
+        Iterator<Long> it = mySet.iterator();
+        it.next();
+        mySet.add(100L);
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    void clear_Normal() {
+        for (long i = 0; i < 5000; i++) {
+            mySet.add(i);
+        }
+
+        mySet.clear();
+        assertEquals(0, mySet.size());
+        assertEquals(0, mySet.runCount());
+        assertFalse(mySet.contains(1L));
+        assertTrue(mySet.add(1L));
+    }
+
+    @Test
+    void close_Normal_deletesRuns() throws IOException {
+        for (long i = 0; i < 5000; i++) {
+            mySet.add(i);
+        }
+
+        mySet.close();
+        try (Stream<Path> left = Files.list(spillParent)) {
+            assertEquals(0, left.count(), "Run files were left behind");
+        }
+        assertThrows(IllegalStateException.class, () -> mySet.contains(1L));
+        mySet.close();
+    }
+
+    @Test
+    void constructor_Exception() {
+        assertThrows(IllegalArgumentException.class, () -> new SpillingHashSet<>(SpillCodec.STRINGS, String::length, 0, spillParent));
+        assertThrows(IllegalArgumentException.class, () -> new SpillingHashSet<>(SpillCodec.STRINGS, String::length, 1024, spillParent, 0));
+    }
+
+    @Test
+    void strings_Normal() throws IOException {
+        try (SpillingHashSet<String> strings = new SpillingHashSet<>(SpillCodec.STRINGS, s -> 40 + 2L * s.length(), 8 * 1024, spillParent)) {
+            for (int i = 0; i < 3000; i++) {
+                strings.add("key-" + i);
+            }
+
+            assertTrue(strings.runCount() > 0);
+            assertTrue(strings.contains("key-17"));
+            assertFalse(strings.contains("key-3000"));
+            assertFalse(strings.add("key-2999"));
+            assertEquals(3000, strings.size());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceReplayTest {
+
+    Path traceFile;
+
+
+    @BeforeEach
+    void setUp() throws IOException {
+        traceFile = Files.createTempFile("trace", ".bin");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(traceFile);
+    }
+
+    @Test
+    void record_Normal_roundTrip() throws IOException {
+        MyHashSet<Long> production = new MyHashSet<>();
+
+        try (RecordingSet<Long> recorder = new RecordingSet<>(production, Long::longValue, traceFile)) {
+            for (long i = 0; i < 1000; i++) {
+                recorder.add(i * 31);
+            }
+            for (long i = 0; i < 1000; i++) {
+                recorder.contains(i * 17);
+            }
+            for (long i = 0; i < 1000; i += 2) {
+                recorder.remove(i * 31);
+            }
+            recorder.contains("not a Long");
+            for (Long ignored : recorder) {
+            }
+
+            assertEquals(500, recorder.size());
+        }
+
+        Trace trace = Trace.read(traceFile);
+        assertEquals(2501, trace.size(), "An unkeyable argument is being recorded");
+        assertEquals(1000, trace.count(Trace.ADD));
+        assertEquals(1000, trace.count(Trace.CONTAINS));
+        assertEquals(500, trace.count(Trace.REMOVE));
+        assertEquals(1, trace.count(Trace.ITERATE));
+        assertEquals(Trace.ADD, trace.op(1));
+        assertEquals(31, trace.key(1));
+        assertTrue(Files.size(traceFile) < 2501 * 4, "Trace records are not compact");
+
+        //Replaying the recorded calls must leave a fresh set exactly where production ended up
+        HashSet<Long> replayed = new HashSet<>();
+        TraceReplay.Result result = TraceReplay.replay(trace, replayed, Long::valueOf);
+        assertEquals(production, replayed);
+        assertEquals(2501, result.operations());
+        assertEquals(2501, result.latencies().count());
+    }
+
+    @Test
+    void record_Normal_clearAndNegativeKeys() throws IOException {
+        try (RecordingSet<Long> recorder = new RecordingSet<>(new MyHashSet<>(), Long::longValue, traceFile)) {
+            recorder.add(Long.MIN_VALUE);
+            recorder.add(-1L);
+            recorder.clear();
+            recorder.add(Long.MAX_VALUE);
+        }
+
+        Trace trace = Trace.read(traceFile);
+        assertEquals(Trace.CLEAR, trace.op(2));
+        assertEquals(Long.MIN_VALUE, trace.key(0));
+        assertEquals(-1L, trace.key(1));
+        assertEquals(Long.MAX_VALUE, trace.key(3));
+    }
+
+    @Test
+    void read_Exception_notATrace() throws IOException {
+        Files.write(traceFile, new byte[]{1, 2, 3, 4, 5});
+        assertThrows(IOException.class, () -> Trace.read(traceFile));
+    }
+
+    @Test
+    void replay_Normal_syntheticTraces() throws IOException {
+        List<Trace> traces = List.of(
+                SyntheticTraces.uniform(20000, 5000, .3, .1, 1),
+                SyntheticTraces.zipfian(20000, 5000, .99, .3, .1, 1),
+                SyntheticTraces.churn(20000, 1000, 1));
+
+        for (Trace trace : traces) {
+            TraceReplay.Result mine = TraceReplay.replay(trace, MyHashSet::new, 1);
+            TraceReplay.Result reference = TraceReplay.replay(trace, HashSet::new, 1);
+
+            assertEquals("MyHashSet", mine.setName());
+            assertEquals(trace.size(), mine.operations());
+            assertTrue(mine.throughput() > 0);
+            assertTrue(mine.latencies().valueAtPercentile(50) <= mine.latencies().valueAtPercentile(99));
+            assertNotNull(reference.toString());
+
+            //Both sets must end in the same state for the comparison to mean anything
+            MyHashSet<Long> a = new MyHashSet<>();
+            HashSet<Long> b = new HashSet<>();
+            TraceReplay.replay(trace, a, Long::valueOf);
+            TraceReplay.replay(trace, b, Long::valueOf);
+            assertEquals(b, a);
+        }
+
+        //A saved synthetic trace reads back identically
+        traces.get(1).write(traceFile);
+        Trace reread = Trace.read(traceFile);
+        assertEquals(traces.get(1).size(), reread.size());
+        for (int i = 0; i < reread.size(); i += 97) {
+            assertEquals(traces.get(1).op(i), reread.op(i));
+            assertEquals(traces.get(1).key(i), reread.key(i));
+        }
+    }
+
+    @Test
+    void synthetic_Normal_shapes() {
+        Trace zipf = SyntheticTraces.zipfian(50000, 10000, 1.1, 0, 0, 7);
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int i = 0; i < zipf.size(); i++) {
+            counts.merge(zipf.key(i), 1, Integer::sum);
+        }
+        int hottest = Collections.max(counts.values());
+        assertTrue(hottest > 50000 / 20, "Zipfian keys are not skewed");
+        assertEquals(50000, zipf.count(Trace.CONTAINS));
+
+        Trace churn = SyntheticTraces.churn(30000, 1000, 7);
+        HashSet<Long> live = new HashSet<>();
+        TraceReplay.replay(churn, live, Long::valueOf);
+        assertEquals(1000, live.size(), "Churn is not holding the live set steady");
+    }
+
+    @Test
+    void synthetic_Exception() {
+        assertThrows(IllegalArgumentException.class, () -> SyntheticTraces.uniform(10, 0, .5, .5, 1));
+        assertThrows(IllegalArgumentException.class, () -> SyntheticTraces.uniform(10, 10, .7, .5, 1));
+        assertThrows(IllegalArgumentException.class, () -> SyntheticTraces.zipfian(10, 10, -1, 0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> SyntheticTraces.churn(10, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> TraceReplay.replay(SyntheticTraces.churn(10, 1, 1), HashSet::new, -1));
+    }
+}
@@ -0,0 +1,179 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Utf8StringSetTest {
+
+    Utf8StringSet mySet;
+
+
+    @BeforeEach
+    void setUp() {
+        mySet = new Utf8StringSet();
+    }
+
+    @Test
+    void add_Normal() {
+        assertTrue(mySet.add("Poe"));
+        assertFalse(mySet.add("Poe"), "Duplicate string is being accepted");
+        assertTrue(mySet.contains("Poe"));
+        assertTrue(mySet.contains(new StringBuilder("Po").append('e')), "A CharSequence lookup is not matching by content");
+        assertFalse(mySet.contains("Po"));
+        assertFalse(mySet.contains(7));
+    }
+
+    @Test
+    void add_Edge_multiByte() {
+        //Two, three and four byte sequences, plus an unpaired surrogate which UTF-8 encoders write as '?'
+        List<String> words = List.of("na\u00efve", "\u65e5\u672c\u8a9e", "emoji \uD83D\uDE00", "lone \uD800 surrogate", "");
+
+        for (String word : words) {
+            assertTrue(mySet.add(word));
+        }
+
+        for (String word : words) {
+            byte[] utf8 = word.getBytes(StandardCharsets.UTF_8);
+            assertTrue(mySet.contains(word));
+            assertTrue(mySet.containsUtf8(utf8, 0, utf8.length), "On-the-fly encoding differs from String.getBytes for " + word);
+            assertEquals(new String(utf8, StandardCharsets.UTF_8), mySet.get(mySet.idOf(word)));
+        }
+        assertEquals(words.size(), mySet.size());
+    }
+
+    @Test
+    void containsUtf8_Normal_slice() {
+        mySet.add("raven");
+        byte[] line = "quoth the raven, nevermore".getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(mySet.containsUtf8(line, 10, 5), "A slice in the middle of an array is not being matched");
+        assertFalse(mySet.containsUtf8(line, 10, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> mySet.containsUtf8(line, 20, 10));
+    }
+
+    @Test
+    void intern_Normal_stableIds() {
+        int poe = mySet.intern("Poe");
+        byte[] raven = "raven".getBytes(StandardCharsets.UTF_8);
+        int ravenId = mySet.intern(raven, 0, raven.length);
+
+        for (int i = 0; i < 1000; i++) {
+            mySet.intern("filler" + i);
+        }
+
+        assertEquals(poe, mySet.intern(new StringBuilder("Poe")), "Interning the same string twice is giving two ids");
+        assertEquals(ravenId, mySet.idOf("raven"));
+        assertEquals("Poe", mySet.get(poe), "Ids are not surviving index resizes");
+        assertEquals(-1, mySet.idOf("Lenore"));
+    }
+
+    @Test
+    void remove_Normal() {
+        int id = mySet.intern("Poe");
+        mySet.add("E.");
+
+        assertTrue(mySet.remove("Poe"));
+        assertFalse(mySet.remove("Poe"));
+        assertFalse(mySet.contains("Poe"));
+        assertThrows(NoSuchElementException.class, () -> mySet.get(id), "A removed id is still resolving");
+        assertEquals(Set.of("E."), new HashSet<>(mySet));
+
+        assertNotEquals(id, mySet.intern("Poe"), "A retired id is being reused");
+    }
+
+    @Test
+    void remove_Edge_churnIsCompacted() {
+        mySet.add("E.");
+        mySet.add("raven");
+        long settled = mySet.estimatedRetainedBytes();
+
+        //Every cycle retires an id and strands its bytes, until compaction reclaims them
+        for (int i = 0; i < 200000; i++) {
+            mySet.add("Poe");
+            mySet.remove("Poe");
+        }
+
+        assertTrue(mySet.estimatedRetainedBytes() < settled + 4096, "Add/remove churn is growing the set without bound");
+        assertEquals(Set.of("E.", "raven"), new HashSet<>(mySet));
+        assertEquals("raven", mySet.get(mySet.idOf("raven")), "Ids are not resolving after a compaction");
+        assertTrue(mySet.idOf("raven") < 2, "Live strings are not being renumbered densely");
+    }
+
+    @Test
+    void intern_Edge_malformedUtf8() {
+        //A stray byte, an overlong '/', an encoded surrogate and a truncated sequence, each decoding to U+FFFDs
+        byte[][] malformed = {{(byte) 0xFF}, {(byte) 0xC0, (byte) 0xAF}, {(byte) 0xED, (byte) 0xA0, (byte) 0x80}, {'a', (byte) 0xE2, (byte) 0x82}};
+
+        for (byte[] bytes : malformed) {
+            String decoded = new String(bytes, StandardCharsets.UTF_8);
+            int id = mySet.intern(decoded);
+
+            assertEquals(id, mySet.intern(bytes, 0, bytes.length), "Malformed bytes are being stored beside the string they decode to");
+            assertTrue(mySet.containsUtf8(bytes, 0, bytes.length));
+        }
+        assertEquals(new HashSet<>(mySet).size(), mySet.size(), "Iteration is returning equal strings");
+
+        byte[] wellFormed = "\u00e9\u65e5 \uD83D\uDE00".getBytes(StandardCharsets.UTF_8);
+        assertEquals(mySet.intern("\u00e9\u65e5 \uD83D\uDE00"), mySet.intern(wellFormed, 0, wellFormed.length));
+    }
+
+    @Test
+    void contains_Normal_concurrentReaders() throws InterruptedException {
+        for (int i = 0; i < 100000; i++) {
+            mySet.add("key" + i);
+        }
+
+        //With no writer, readers must never disturb each other's encoding
+        AtomicInteger misses = new AtomicInteger();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 8; r++) {
+            readers.add(new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    if (!mySet.contains("key" + i))
+                        misses.incrementAndGet();
+                }
+            }));
+        }
+
+        readers.forEach(Thread::start);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(0, misses.get(), "Concurrent lookups are sharing state");
+    }
+
+    @Test
+    void iterator_Normal() {
+        Set<String> testable = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            mySet.add("word" + i);
+            testable.add("word" + i);
+        }
+
+        assertEquals(testable, new HashSet<>(mySet));
+        mySet.clear();
+        assertTrue(mySet.isEmpty());
+        assertFalse(mySet.iterator().hasNext());
+    }
+
+    @Test
+    void estimatedRetainedBytes_Normal_halfOfMyHashSet() {
+        MyHashSet<String> strings = new MyHashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            String key = "key" + i;
+            strings.add(key);
+            mySet.add(key);
+        }
+
+        //A String is its own object plus a byte[] of its Latin-1 characters
+        long stringSetBytes = strings.estimatedRetainedBytes(s -> MemoryFootprint.instanceBytes(String.class)
+                + MemoryFootprint.align(MemoryFootprint.ARRAY_HEADER_BYTES + s.length()));
+
+        assertTrue(mySet.estimatedRetainedBytes() * 2 < stringSetBytes, "Short keys are not taking less than half the memory of a MyHashSet of String");
+    }
+}